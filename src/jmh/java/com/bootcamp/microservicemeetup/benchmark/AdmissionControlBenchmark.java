@@ -0,0 +1,106 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.config.ClientRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// custo de admitir uma request com todas as threads no mesmo cliente (clients = 1, CAS disputado no mesmo balde)
+// e espalhadas em muitos clientes, contra um balde clássico com synchronized. "flooded" é o cliente que já
+// estourou o orçamento: a recusa não escreve no balde, então deve ficar mais barata que a admissão
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class AdmissionControlBenchmark {
+
+    @Param({"1", "10000"})
+    public int clients;
+
+    private String[] clientIds;
+
+    private ClientRateLimiter open;
+
+    private ClientRateLimiter flooded;
+
+    private final Map<String, SynchronizedTokenBucket> synchronizedBuckets = new ConcurrentHashMap<>();
+
+    @Setup
+    public void setUp() {
+        clientIds = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientIds[i] = "integration-" + i;
+        }
+        // orçamento que nunca acaba, para medir só o caminho de admissão
+        open = new ClientRateLimiter(1e9, Integer.MAX_VALUE / 2, 1e9, Integer.MAX_VALUE / 2, clients);
+        flooded = new ClientRateLimiter(0.001, 1, 0.001, 1, clients);
+        for (String clientId : clientIds) {
+            flooded.tryAcquire(clientId, false);
+        }
+    }
+
+    @Benchmark
+    public long admitted() {
+        return open.tryAcquire(client(), false);
+    }
+
+    @Benchmark
+    public long rejected() {
+        return flooded.tryAcquire(client(), false);
+    }
+
+    @Benchmark
+    public long synchronizedBucket() {
+        return synchronizedBuckets.computeIfAbsent(client(), key -> new SynchronizedTokenBucket(1e9, Integer.MAX_VALUE / 2))
+                .tryAcquire(System.nanoTime());
+    }
+
+    private String client() {
+        return clientIds[ThreadLocalRandom.current().nextInt(clients)];
+    }
+
+    // a implementação de livro, com tokens e último refill sob o mesmo lock
+    static final class SynchronizedTokenBucket {
+
+        private final double tokensPerNano;
+
+        private final double capacity;
+
+        private double tokens;
+
+        private long refilledAt = System.nanoTime();
+
+        SynchronizedTokenBucket(double tokensPerSecond, int capacity) {
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        synchronized long tryAcquire(long nowNanos) {
+            tokens = Math.min(capacity, tokens + (nowNanos - refilledAt) * tokensPerNano);
+            refilledAt = nowNanos;
+            if (tokens < 1) {
+                return (long) ((1 - tokens) / tokensPerNano);
+            }
+            tokens--;
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.ServicoDeAgendamentoDeMeetupsApplication;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    static final int EVENTS = 10;
+
+    @Param({"1000"})
+    public int rows;
+
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = startApplication();
+        seed();
+    }
+
+    // sem admission control: os benchmarks HTTP mandam milhares de requests por segundo do mesmo IP.
+    // O custo do limiter é medido à parte no AdmissionControlBenchmark
+    static ConfigurableApplicationContext startApplication(String... properties) {
+        return new SpringApplicationBuilder(ServicoDeAgendamentoDeMeetupsApplication.class)
+                .properties(
+                        "server.port=0",
+                        "meetup.admission.enabled=false",
+                        "meetup.reactive.port=0",
+                        "logging.level.root=WARN",
+                        "spring.jpa.show-sql=false",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+                .properties(properties)
+                .run();
+    }
+
+    // carga por SQL para os benchmarks HTTP, que precisam de mais linhas do que o saveAll aguenta rápido
+    static void bulkSeed(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into registration (registration_id, person_name, date_of_registration, registration) " +
+                "select x, concat('Person ', x), ?, concat('R', x) from system_range(1, ?)", LocalDate.of(2021, 10, 10), rows);
+        jdbcTemplate.update("insert into meetup (id, event, id_registration, meetup_date, registered) " +
+                "select x, concat('Event ', mod(x, " + EVENTS + ")), x, ?, false from system_range(1, ?)",
+                LocalDate.of(2022, 6, 6), rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    static String registrationCode(int i) {
+        return String.format("R%06d", i);
+    }
+
+    static String event(int i) {
+        return "Event " + (i % EVENTS);
+    }
+
+    private void seed() {
+        List<Registration> registrations = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            registrations.add(Registration.builder()
+                    .name("Person " + i)
+                    .dateOfRegistration(LocalDate.of(2021, 10, 10))
+                    .registration(registrationCode(i))
+                    .build());
+        }
+        registrations = bean(RegistrationRepository.class).saveAll(registrations);
+
+        List<Meetup> meetups = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            meetups.add(Meetup.builder()
+                    .event(event(i))
+                    .meetupDate(LocalDate.of(2022, 6, 6))
+                    .registration(registrations.get(i))
+                    .registered(false)
+                    .build());
+        }
+        bean(MeetupRepository.class).saveAll(meetups);
+    }
+}
@@ -0,0 +1,109 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapperImpl;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapperImpl;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    private final RegistrationMapper registrationMapper = new RegistrationMapperImpl();
+
+    private final MeetupMapper meetupMapper = new MeetupMapperImpl(registrationMapper);
+
+    private List<Meetup> meetups;
+
+    private List<Registration> registrations;
+
+    @Setup
+    public void setUp() {
+        meetups = new ArrayList<>(pageSize);
+        registrations = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Registration registration = Registration.builder()
+                    .id(i)
+                    .name("Person " + i)
+                    .dateOfRegistration(LocalDate.of(2021, 10, 10))
+                    .registration(ApplicationState.registrationCode(i))
+                    .build();
+            registrations.add(registration);
+            meetups.add(Meetup.builder()
+                    .id(i)
+                    .event(ApplicationState.event(i))
+                    .meetupDate(LocalDate.of(2022, 6, 6))
+                    .registration(registration)
+                    .registered(false)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<MeetupDTO> meetupPageModelMapper() {
+        List<MeetupDTO> page = new ArrayList<>(meetups.size());
+        for (Meetup meetup : meetups) {
+            MeetupDTO meetupDTO = modelMapper.map(meetup, MeetupDTO.class);
+            meetupDTO.setRegistration(modelMapper.map(meetup.getRegistration(), RegistrationDTO.class));
+            page.add(meetupDTO);
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<RegistrationDTO> registrationPageModelMapper() {
+        List<RegistrationDTO> page = new ArrayList<>(registrations.size());
+        for (Registration registration : registrations) {
+            page.add(modelMapper.map(registration, RegistrationDTO.class));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<MeetupDTO> meetupPageGenerated() {
+        List<MeetupDTO> page = new ArrayList<>(meetups.size());
+        for (Meetup meetup : meetups) {
+            page.add(meetupMapper.toDto(meetup));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<RegistrationDTO> registrationPageGenerated() {
+        List<RegistrationDTO> page = new ArrayList<>(registrations.size());
+        for (Registration registration : registrations) {
+            page.add(registrationMapper.toDto(registration));
+        }
+        return page;
+    }
+}
@@ -0,0 +1,73 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// o SampleTime dá o p99 de cada modo; os dois rodam na mesma máquina, com o mesmo número de clientes.
+// o modo virtual precisa de JDK 21: ./gradlew jmh -PvirtualThreads -PjmhIncludes=HttpLoadBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(512)
+@Fork(1)
+public class HttpLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUri;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = ApplicationState.startApplication("meetup.execution.mode=" + mode);
+        ApplicationState.bulkSeed(context, rows);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/meetups";
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findByEvent() throws IOException, InterruptedException {
+        int page = ThreadLocalRandom.current().nextInt(10);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "?event=Event%20"
+                        + ThreadLocalRandom.current().nextInt(ApplicationState.EVENTS) + "&page=" + page + "&size=20"))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
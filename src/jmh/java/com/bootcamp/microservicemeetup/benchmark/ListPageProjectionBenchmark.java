@@ -0,0 +1,147 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapper;
+import com.bootcamp.microservicemeetup.controller.resource.MeetupController;
+import com.bootcamp.microservicemeetup.controller.resource.RegistrationController;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.impl.RegistrationSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// páginas de 1000 linhas pelos controllers (projeções) contra o caminho anterior, que hidratava as entidades
+// no contexto de persistência e mapeava depois. O profiler gc do build dá gc.alloc.rate.norm por página
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListPageProjectionBenchmark {
+
+    // consultas de página que o MeetupRepository e o RegistrationServiceImpl usavam antes das projeções
+    static final String MEETUP_ENTITY_PAGE = " select l from Meetup as l join fetch l.registration as b where l.event = :event ";
+    static final String MEETUP_ENTITY_COUNT = " select count(l) from Meetup as l where l.event = :event and l.registration is not null ";
+
+    @Param({"1000"})
+    public int pageSize;
+
+    // 10 eventos, então cada evento tem rows / 10 meetups
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private MeetupController meetupController;
+
+    private RegistrationController registrationController;
+
+    private MeetupMapper meetupMapper;
+
+    private RegistrationMapper registrationMapper;
+
+    private RegistrationRepository registrationRepository;
+
+    private RegistrationSearchIndex searchIndex;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate readOnly;
+
+    private MeetupFilterDTO meetupFilter;
+
+    private RegistrationDTO registrationFilter;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = ApplicationState.startApplication();
+        ApplicationState.bulkSeed(context, rows);
+
+        meetupController = context.getBean(MeetupController.class);
+        registrationController = context.getBean(RegistrationController.class);
+        meetupMapper = context.getBean(MeetupMapper.class);
+        registrationMapper = context.getBean(RegistrationMapper.class);
+        registrationRepository = context.getBean(RegistrationRepository.class);
+        searchIndex = context.getBean(RegistrationSearchIndex.class);
+        // o bulkSeed grava por SQL, depois da carga feita no startup
+        searchIndex.load();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        meetupFilter = MeetupFilterDTO.builder().event(ApplicationState.event(1)).build();
+        registrationFilter = RegistrationDTO.builder().name("Person").build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MeetupDTO> meetupPageProjection() {
+        return meetupController.find(meetupFilter, PageRequest.of(0, pageSize));
+    }
+
+    @Benchmark
+    public Page<MeetupDTO> meetupPageEntities() {
+        return readOnly.execute(status -> {
+            List<Meetup> content = entityManager.createQuery(MEETUP_ENTITY_PAGE, Meetup.class)
+                    .setParameter("event", meetupFilter.getEvent())
+                    .setMaxResults(pageSize)
+                    .getResultList();
+            Long total = entityManager.createQuery(MEETUP_ENTITY_COUNT, Long.class)
+                    .setParameter("event", meetupFilter.getEvent())
+                    .getSingleResult();
+            return new PageImpl<>(content, PageRequest.of(0, pageSize), total).map(meetupMapper::toDto);
+        });
+    }
+
+    @Benchmark
+    public Page<RegistrationDTO> registrationPageProjection() {
+        return registrationController.find(registrationFilter, PageRequest.of(0, pageSize));
+    }
+
+    @Benchmark
+    public Page<RegistrationDTO> registrationPageEntities() {
+        return readOnly.execute(status -> {
+            List<Integer> ids = searchIndex.search(registrationMapper.toEntity(registrationFilter));
+            List<Integer> pageIds = ids.subList(0, Math.min(pageSize, ids.size()));
+            Map<Integer, Registration> registrations = registrationRepository.findAllById(pageIds).stream()
+                    .collect(Collectors.toMap(Registration::getId, Function.identity()));
+            List<Registration> content = pageIds.stream().map(registrations::get).collect(Collectors.toList());
+            return new PageImpl<>(content, PageRequest.of(0, pageSize), ids.size()).map(registrationMapper::toDto);
+        });
+    }
+}
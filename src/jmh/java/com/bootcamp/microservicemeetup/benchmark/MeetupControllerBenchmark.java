@@ -0,0 +1,50 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.controller.resource.MeetupController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MeetupControllerBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private MeetupController controller;
+
+    private MeetupFilterDTO filter;
+
+    @Setup
+    public void setUp(ApplicationState application) {
+        controller = application.bean(MeetupController.class);
+        filter = MeetupFilterDTO.builder()
+                .registration(ApplicationState.registrationCode(1))
+                .event(ApplicationState.event(0))
+                .build();
+    }
+
+    @Benchmark
+    public Page<MeetupDTO> find() {
+        return controller.find(filter, PageRequest.of(0, pageSize));
+    }
+}
@@ -0,0 +1,71 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.service.MeetupService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class MeetupDateRangeBenchmark {
+
+    static final LocalDate FIRST_MEETUP_DATE = LocalDate.of(2020, 1, 1);
+
+    static final int DAYS = 3650;
+
+    @Param({"10000000"})
+    public int rows;
+
+    @Param({"1", "7"})
+    public int windowDays;
+
+    private ConfigurableApplicationContext context;
+
+    private MeetupService meetupService;
+
+    // 10M linhas via JPA levariam horas; o insert ... select do H2 monta a tabela direto no banco
+    @Setup(Level.Trial)
+    public void start() {
+        context = ApplicationState.startApplication();
+        context.getBean(JdbcTemplate.class).update(
+                "insert into meetup (id, event, meetup_date, registered, id_registration) " +
+                "select x, concat('Event ', mod(x, " + ApplicationState.EVENTS + ")), " +
+                "dateadd('DAY', mod(x, " + DAYS + "), ?), false, null from system_range(1, ?)",
+                FIRST_MEETUP_DATE, rows);
+        meetupService = context.getBean(MeetupService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Meetup> findByMeetupDate() {
+        LocalDate from = FIRST_MEETUP_DATE.plusDays(ThreadLocalRandom.current().nextInt(DAYS - windowDays));
+        return meetupService.findByMeetupDate(from, from.plusDays(windowDays - 1), PageRequest.of(0, 20));
+    }
+}
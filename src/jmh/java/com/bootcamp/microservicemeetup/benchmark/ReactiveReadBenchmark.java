@@ -0,0 +1,116 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.netty.DisposableServer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// cada operação deixa inFlight requests abertas ao mesmo tempo contra uma das pilhas. O gc.alloc.rate.norm do
+// profiler dividido por inFlight dá a memória por request, e o pico de threads é impresso ao fim de cada iteração.
+// o cliente roda na mesma JVM, mas com poucas threads e o mesmo custo nas duas pilhas
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ReactiveReadBenchmark {
+
+    static final int CLIENT_THREADS = 4;
+
+    @Param({"blocking", "reactive"})
+    public String stack;
+
+    @Param({"100", "1000"})
+    public int inFlight;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private ExecutorService clientExecutor;
+
+    private HttpClient client;
+
+    private URI[] uris;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = ApplicationState.startApplication("meetup.reactive.enabled=true");
+        ApplicationState.bulkSeed(context, rows);
+
+        int port = "reactive".equals(stack)
+                ? context.getBean(DisposableServer.class).port()
+                : Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+        uris = new URI[ApplicationState.EVENTS];
+        for (int i = 0; i < uris.length; i++) {
+            uris[i] = URI.create("http://localhost:" + port + "/api/meetups?event=Event%20" + i + "&page=0&size=20");
+        }
+
+        clientExecutor = Executors.newFixedThreadPool(CLIENT_THREADS);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeakThreads() {
+        threads.resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportPeakThreads() {
+        System.out.printf("%n%s with %d requests in flight: peak of %d live threads%n", stack, inFlight, threads.getPeakThreadCount());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        clientExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int concurrentFind() {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<HttpResponse<Void>>[] responses = new CompletableFuture[inFlight];
+        for (int i = 0; i < inFlight; i++) {
+            responses[i] = client.sendAsync(HttpRequest.newBuilder(uris[i % uris.length]).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+        CompletableFuture.allOf(responses).join();
+
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,69 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.RegistrationView;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.RegistrationService;
+import com.bootcamp.microservicemeetup.service.impl.RegistrationSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RegistrationSearchBenchmark {
+
+    // mesmo matcher que o RegistrationServiceImpl usava antes do índice
+    private static final ExampleMatcher CONTAINING = ExampleMatcher.matching()
+            .withIgnoreCase()
+            .withIgnoreNullValues()
+            .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING);
+
+    @Param({"son 12", "r0004"})
+    public String query;
+
+    private RegistrationService registrationService;
+
+    private RegistrationRepository repository;
+
+    private Registration filter;
+
+    @Setup
+    public void setUp(ApplicationState application) {
+        registrationService = application.bean(RegistrationService.class);
+        repository = application.bean(RegistrationRepository.class);
+        // o seed grava direto pelo repository, depois da carga feita no startup
+        application.bean(RegistrationSearchIndex.class).load();
+        filter = query.startsWith("r")
+                ? Registration.builder().registration(query).build()
+                : Registration.builder().name(query).build();
+    }
+
+    @Benchmark
+    public Page<RegistrationView> trigramIndex() {
+        return registrationService.find(filter, PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<Registration> exampleQuery() {
+        return repository.findAll(Example.of(filter, CONTAINING), PageRequest.of(0, 20));
+    }
+}
@@ -0,0 +1,46 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.service.RegistrationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RegistrationServiceBenchmark {
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private RegistrationService registrationService;
+
+    @Setup
+    public void setUp(ApplicationState application) {
+        registrationService = application.bean(RegistrationService.class);
+    }
+
+    @Benchmark
+    public Registration save() {
+        int i = sequence.incrementAndGet();
+        return registrationService.save(Registration.builder()
+                .name("Bench " + i)
+                .dateOfRegistration(LocalDate.of(2021, 10, 10))
+                .registration("B" + i)
+                .build());
+    }
+}
@@ -0,0 +1,106 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.ReservationRepository;
+import com.bootcamp.microservicemeetup.service.ReservationService;
+import com.bootcamp.microservicemeetup.service.impl.ReservationServiceImpl;
+import com.bootcamp.microservicemeetup.service.impl.ReservationWriteBehind;
+import com.bootcamp.microservicemeetup.service.impl.SeatCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// vazão do caminho de reserva (claim, CAS no contador, fila do write-behind) com todas as threads no mesmo meetup
+// (meetups = 1, o pior caso do CAS) e espalhadas. O banco fica de fora: os repositories são stubs e o flush
+// roda em segundo plano como o @Scheduled de produção, só para a fila não crescer durante a medição
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ReservationBenchmark {
+
+    @Param({"1", "100"})
+    public int meetups;
+
+    private final AtomicInteger nextRegistration = new AtomicInteger();
+
+    private ReservationService reservationService;
+
+    private ReservationWriteBehind writeBehind;
+
+    private ScheduledExecutorService flusher;
+
+    @Setup
+    public void setUp() {
+        MeetupRepository meetupRepository = stub(MeetupRepository.class);
+        ReservationRepository reservationRepository = stub(ReservationRepository.class);
+        SeatCounters seatCounters = new SeatCounters(meetupRepository, reservationRepository);
+        seatCounters.load();
+        // capacidade que não acaba durante a medição, para medir a reserva aceita e não a recusa por lotação
+        IntStream.rangeClosed(1, meetups).forEach(id -> seatCounters.register(id, Integer.MAX_VALUE));
+
+        writeBehind = new ReservationWriteBehind(reservationRepository, seatCounters, 500);
+        reservationService = new ReservationServiceImpl(seatCounters, writeBehind, reservationRepository);
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(writeBehind::flush, 200, 200, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(1, TimeUnit.SECONDS);
+        writeBehind.flush();
+    }
+
+    @Benchmark
+    public Optional<Integer> reserve() {
+        int meetupId = 1 + ThreadLocalRandom.current().nextInt(meetups);
+        Registration registration = Registration.builder().id(nextRegistration.incrementAndGet()).build();
+        return reservationService.reserve(meetupId, registration);
+    }
+
+    // só os métodos que o caminho da reserva chama; a checagem de duplicata nunca acha nada, como numa inscrição nova
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> repository) {
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "countByMeetup":
+                            return Collections.emptyList();
+                        case "streamCapacities":
+                            return Stream.empty();
+                        case "existsByMeetupIdAndRegistrationId":
+                            return false;
+                        case "saveAll":
+                            return args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -1,18 +1,15 @@
 package com.bootcamp.microservicemeetup;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// o ConnectionFactory do R2DBC é montado no ReactiveReadConfig em cima do mesmo banco do JPA, e um segundo
+// transaction manager tiraria o lugar do JpaTransactionManager
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class ServicoDeAgendamentoDeMeetupsApplication {
 
-	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
-	}
-
 	public static void main(String[] args) {
 		SpringApplication.run(ServicoDeAgendamentoDeMeetupsApplication.class, args);
 	}
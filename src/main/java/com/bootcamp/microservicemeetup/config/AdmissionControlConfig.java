@@ -0,0 +1,39 @@
+package com.bootcamp.microservicemeetup.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "meetup.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    // logo depois do filtro de métricas do actuator, para as recusas aparecerem no http.server.requests
+    // e antes de qualquer outro filtro fazer trabalho para uma request que vai ser recusada
+    static final int FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 2;
+
+    @Bean
+    public ClientRateLimiter clientRateLimiter(@Value("${meetup.admission.read.rate}") double readRate,
+                                               @Value("${meetup.admission.read.burst}") int readBurst,
+                                               @Value("${meetup.admission.write.rate}") double writeRate,
+                                               @Value("${meetup.admission.write.burst}") int writeBurst,
+                                               @Value("${meetup.admission.max-clients}") long maxClients) {
+        return new ClientRateLimiter(readRate, readBurst, writeRate, writeBurst, maxClients);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            ClientRateLimiter clientRateLimiter,
+            @Value("${meetup.admission.read.max-concurrent}") int maxConcurrentReads,
+            @Value("${meetup.admission.write.max-concurrent}") int maxConcurrentWrites,
+            @Value("${meetup.admission.trust-client-header}") boolean trustClientHeader) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(clientRateLimiter, maxConcurrentReads, maxConcurrentWrites, trustClientHeader));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(FILTER_ORDER);
+        return registration;
+    }
+}
@@ -0,0 +1,94 @@
+package com.bootcamp.microservicemeetup.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// primeiro o orçamento do cliente (429), depois o limite de requests simultâneas da classe (503). Nada espera:
+// quem não cabe volta na hora com Retry-After. Leitura e escrita têm baldes e limites separados, então um cliente
+// inundando os GETs não tira de ninguém os POSTs de inscrição
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    // sem autenticação na API o cliente é o IP; atrás de um gateway que preenche (e sobrescreve) o header,
+    // trustClientHeader passa a usar o header, que de outro modo qualquer um trocaria a cada request
+    static final String CLIENT_HEADER = "X-Client-Id";
+
+    static final int MAX_CLIENT_LENGTH = 64;
+
+    private final ClientRateLimiter rateLimiter;
+
+    private final Semaphore reads;
+
+    private final Semaphore writes;
+
+    private final boolean trustClientHeader;
+
+    public AdmissionControlFilter(ClientRateLimiter rateLimiter, int maxConcurrentReads, int maxConcurrentWrites,
+                                  boolean trustClientHeader) {
+        this.rateLimiter = rateLimiter;
+        this.trustClientHeader = trustClientHeader;
+        this.reads = new Semaphore(maxConcurrentReads);
+        this.writes = new Semaphore(maxConcurrentWrites);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean write = isWrite(request);
+        long waitNanos = rateLimiter.tryAcquire(client(request), write);
+        if (waitNanos > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(waitNanos)));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        Semaphore inFlight = write ? writes : reads;
+        if (!inFlight.tryAcquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !(HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method));
+    }
+
+    // o Retry-After é em segundos inteiros; arredonda para cima para o cliente não voltar antes do token
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private String client(HttpServletRequest request) {
+        if (!trustClientHeader) {
+            return request.getRemoteAddr();
+        }
+        String client = request.getHeader(CLIENT_HEADER);
+        if (client == null || client.isEmpty() || client.length() > MAX_CLIENT_LENGTH) {
+            return request.getRemoteAddr();
+        }
+        return client;
+    }
+
+    int availableReads() {
+        return reads.availablePermits();
+    }
+
+    int availableWrites() {
+        return writes.availablePermits();
+    }
+}
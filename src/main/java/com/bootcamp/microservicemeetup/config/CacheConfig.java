@@ -0,0 +1,50 @@
+package com.bootcamp.microservicemeetup.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String REGISTRATIONS_BY_CODE = "registrationsByCode";
+    public static final String MEETUP_VERSIONS = "meetupVersions";
+    public static final String REGISTRATION_VERSIONS = "registrationVersions";
+
+    // recordStats alimenta as métricas cache.gets / cache.evictions expostas pelo actuator. O proxy transacional
+    // adia put e evict para o commit: um evict antes do commit deixaria outra request recolocar no cache a linha
+    // antiga, e um rollback não desfaria nada
+    @Bean
+    public CacheManager cacheManager(@Value("${meetup.cache.registration.maximum-size}") long maximumSize,
+                                     @Value("${meetup.cache.registration.expire-after-write}") Duration expireAfterWrite,
+                                     @Value("${meetup.cache.version.maximum-size}") long versionMaximumSize,
+                                     @Value("${meetup.cache.version.expire-after-write}") Duration versionExpireAfterWrite) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(REGISTRATIONS_BY_CODE);
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+
+        // só a versão de cada entidade, para responder If-None-Match sem carregar a entidade
+        cacheManager.registerCustomCache(MEETUP_VERSIONS, Caffeine.newBuilder()
+                .maximumSize(versionMaximumSize)
+                .expireAfterWrite(versionExpireAfterWrite)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(REGISTRATION_VERSIONS, Caffeine.newBuilder()
+                .maximumSize(versionMaximumSize)
+                .expireAfterWrite(versionExpireAfterWrite)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bootcamp.microservicemeetup.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+// um par de baldes (leitura e escrita) por cliente. O Caffeine é o mapa concorrente: o lookup de um cliente
+// conhecido não trava, e um cliente parado há mais que o tempo de encher os baldes sai do mapa, porque voltaria
+// com os baldes cheios de qualquer jeito. Se max-clients estourar, quem sai ganha baldes cheios na volta
+public class ClientRateLimiter {
+
+    private final double readRate;
+
+    private final int readBurst;
+
+    private final double writeRate;
+
+    private final int writeBurst;
+
+    private final Cache<String, Buckets> buckets;
+
+    public ClientRateLimiter(double readRate, int readBurst, double writeRate, int writeBurst, long maxClients) {
+        this.readRate = readRate;
+        this.readBurst = readBurst;
+        this.writeRate = writeRate;
+        this.writeBurst = writeBurst;
+        Buckets sample = newBuckets(0);
+        long refillNanos = Math.max(sample.read.refillNanos(), sample.write.refillNanos());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(refillNanos).plusSeconds(1))
+                .build();
+    }
+
+    // 0 quando a request cabe no orçamento do cliente; senão quantos nanos até caber
+    public long tryAcquire(String client, boolean write) {
+        Buckets clientBuckets = buckets.getIfPresent(client);
+        if (clientBuckets == null) {
+            clientBuckets = buckets.get(client, key -> newBuckets(System.nanoTime()));
+        }
+        return (write ? clientBuckets.write : clientBuckets.read).tryAcquire(System.nanoTime());
+    }
+
+    private Buckets newBuckets(long nowNanos) {
+        return new Buckets(new TokenBucket(readRate, readBurst, nowNanos), new TokenBucket(writeRate, writeBurst, nowNanos));
+    }
+
+    private static final class Buckets {
+
+        private final TokenBucket read;
+
+        private final TokenBucket write;
+
+        private Buckets(TokenBucket read, TokenBucket write) {
+            this.read = read;
+            this.write = write;
+        }
+    }
+}
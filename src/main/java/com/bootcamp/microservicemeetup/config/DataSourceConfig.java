@@ -0,0 +1,85 @@
+package com.bootcamp.microservicemeetup.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// o DataSource é montado aqui e não pelo Boot: o DataSourceAutoConfiguration recua quando existe um ConnectionFactory
+// do R2DBC (ReactiveReadConfig), e as réplicas precisam ficar atrás de um único bean para o datasource-proxy contar
+// cada statement uma vez só. Sem meetup.datasource.replica.urls o bean é o pool da primária, como antes
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties,
+                                 Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${meetup.datasource.replica.urls}") List<String> replicaUrls,
+                                 @Value("${meetup.datasource.replica.max-lag}") Duration maxLag) {
+        HikariDataSource primary = pool(properties.initializeDataSourceBuilder(), "meetup-primary", environment, meterRegistry);
+        if (replicaUrls.isEmpty()) {
+            return primary;
+        }
+
+        List<HikariDataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (String url : replicaUrls) {
+            DataSourceBuilder<?> builder = DataSourceBuilder.create(properties.getClassLoader())
+                    .url(url.trim())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword());
+            replicas.add(pool(builder, "meetup-replica-" + (replicas.size() + 1), environment, meterRegistry));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLag);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor readFromPrimaryAdvisor() {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, ReadFromPrimary.class, true),
+                (MethodInterceptor) ReplicaRoutingDataSource::readFromPrimary);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${meetup.datasource.replica.max-lag}") Duration maxLag) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(maxLag));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    // os pools não são beans, então as propriedades spring.datasource.hikari e as métricas hikaricp.* são ligadas aqui
+    private static HikariDataSource pool(DataSourceBuilder<?> builder, String poolName, Environment environment,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource dataSource = builder.type(HikariDataSource.class).build();
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return dataSource;
+    }
+}
@@ -0,0 +1,55 @@
+package com.bootcamp.microservicemeetup.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+// os contadores brutos por região (hibernate.second.level.cache.requests, hibernate.cache.query.requests) já vêm
+// do HibernateMetrics do actuator; aqui fica a razão hits / (hits + misses) pronta, NaN enquanto a região não foi lida
+class HibernateCacheHitRatio implements MeterBinder {
+
+    static final String METRIC_NAME = "hibernate.cache.region.hit.ratio";
+
+    private final Statistics statistics;
+
+    private final List<String> entityRegions;
+
+    private final List<String> queryRegions;
+
+    HibernateCacheHitRatio(Statistics statistics, List<String> entityRegions, List<String> queryRegions) {
+        this.statistics = statistics;
+        this.entityRegions = entityRegions;
+        this.queryRegions = queryRegions;
+    }
+
+    // as estatísticas de região de query têm um getter próprio; o de entidade recusa regiões de query
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : entityRegions) {
+            register(registry, region, stats -> hitRatio(stats.getCacheRegionStatistics(region)));
+        }
+        for (String region : queryRegions) {
+            register(registry, region, stats -> hitRatio(stats.getQueryRegionStatistics(region)));
+        }
+    }
+
+    private void register(MeterRegistry registry, String region, ToDoubleFunction<Statistics> hitRatio) {
+        Gauge.builder(METRIC_NAME, statistics, hitRatio)
+                .tag("region", region)
+                .description("Share of second-level cache lookups answered by the region")
+                .register(registry);
+    }
+
+    static double hitRatio(CacheRegionStatistics region) {
+        if (region == null) {
+            return Double.NaN;
+        }
+        long lookups = region.getHitCount() + region.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) region.getHitCount() / lookups;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bootcamp.microservicemeetup.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tempo de mapeamento das páginas de entidades para DTOs no timer meetup.mapping, com a tag mapper.
+ * Uma amostra por página, medida em volta do loop: os mappers do MapStruct são chamados direto, sem proxy,
+ * e o custo por linha continua só o do código gerado.
+ */
+@Component
+public class MappingMetrics {
+
+    static final String METRIC_NAME = "meetup.mapping";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Class<?>, Timer> timers = new ConcurrentHashMap<>();
+
+    // sem registry no contexto (slices de teste) as medidas vão para o registry global do Micrometer
+    public MappingMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfUnique(() -> Metrics.globalRegistry);
+    }
+
+    public <S, T> Page<T> map(Class<?> mapper, Page<S> page, Function<? super S, ? extends T> mapping) {
+        long start = System.nanoTime();
+        Page<T> mapped = page.map(mapping);
+        record(mapper, start);
+        return mapped;
+    }
+
+    public <S, T> List<T> map(Class<?> mapper, List<S> rows, Function<? super S, ? extends T> mapping) {
+        long start = System.nanoTime();
+        List<T> mapped = rows.stream().<T>map(mapping).collect(Collectors.toList());
+        record(mapper, start);
+        return mapped;
+    }
+
+    private void record(Class<?> mapper, long start) {
+        timers.computeIfAbsent(mapper, this::timer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(Class<?> mapper) {
+        return Timer.builder(METRIC_NAME)
+                .description("Time spent mapping a page of entities to DTOs")
+                .tag("mapper", mapper.getSimpleName())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,25 @@
+package com.bootcamp.microservicemeetup.config;
+
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+
+// latência por endpoint, Hibernate e Hikari vêm do actuator (ver application.properties); aqui só o que ele não cobre
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder hibernateCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        return new HibernateCacheHitRatio(entityManagerFactory.unwrap(SessionFactory.class).getStatistics(),
+                Arrays.asList(Registration.CACHE_REGION, Meetup.CACHE_REGION),
+                Collections.singletonList(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME));
+    }
+}
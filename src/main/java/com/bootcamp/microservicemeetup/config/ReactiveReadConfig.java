@@ -0,0 +1,80 @@
+package com.bootcamp.microservicemeetup.config;
+
+import com.bootcamp.microservicemeetup.controller.resource.MeetupReactiveHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Pilha de leitura não bloqueante ao lado do Spring MVC: um servidor Reactor Netty na porta meetup.reactive.port
+ * atende os GETs de meetup pelo driver R2DBC, sem ocupar thread enquanto a consulta está no banco.
+ * O driver abre o mesmo H2 configurado em spring.datasource, então as duas pilhas enxergam os mesmos dados.
+ */
+@Configuration
+public class ReactiveReadConfig {
+
+    static final String H2_URL_PREFIX = "jdbc:h2:";
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(name = "meetup.reactive.enabled", havingValue = "true")
+    public ConnectionPool reactiveConnectionFactory(DataSourceProperties dataSourceProperties,
+                                                    @Value("${meetup.reactive.pool.max-size}") int maxSize) {
+        String url = dataSourceProperties.determineUrl();
+        if (url == null || !url.startsWith(H2_URL_PREFIX)) {
+            throw new IllegalStateException("The reactive read path only supports H2, not " + url);
+        }
+
+        H2ConnectionConfiguration.Builder configuration = H2ConnectionConfiguration.builder()
+                .url(url.substring(H2_URL_PREFIX.length()));
+        if (dataSourceProperties.determineUsername() != null) {
+            configuration.username(dataSourceProperties.determineUsername());
+        }
+        if (dataSourceProperties.determinePassword() != null) {
+            configuration.password(dataSourceProperties.determinePassword());
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(new H2ConnectionFactory(configuration.build()))
+                .maxSize(maxSize)
+                .build());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "meetup.reactive.enabled", havingValue = "true")
+    public DatabaseClient reactiveDatabaseClient(ConnectionPool reactiveConnectionFactory) {
+        return DatabaseClient.create(reactiveConnectionFactory);
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    @ConditionalOnProperty(name = "meetup.reactive.enabled", havingValue = "true")
+    public DisposableServer reactiveReadServer(MeetupReactiveHandler meetupReactiveHandler,
+                                               ObjectMapper objectMapper,
+                                               @Value("${meetup.reactive.port}") int port) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(meetupReactiveHandler.routes(), strategies);
+
+        return HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+    }
+}
@@ -0,0 +1,17 @@
+package com.bootcamp.microservicemeetup.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Leitura que precisa ver a primária, mas que não é uma escrita: vai junto com {@code @Transactional(readOnly = true)}
+ * e, ao contrário de uma transação read-write, não liga o read-your-writes da sessão nem manda o cookie.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromPrimary {
+}
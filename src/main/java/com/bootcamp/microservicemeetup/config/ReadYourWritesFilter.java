@@ -0,0 +1,64 @@
+package com.bootcamp.microservicemeetup.config;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// a sessão de read-your-writes viaja num cookie com o instante da última escrita do cliente, então vale entre
+// requests e entre instâncias; um valor no futuro ou inválido é ignorado
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String LAST_WRITE_COOKIE = "meetup-last-write";
+
+    private final int maxAgeSeconds;
+
+    public ReadYourWritesFilter(Duration maxLag) {
+        this.maxAgeSeconds = (int) Math.max(1, (maxLag.toMillis() + 999) / 1000);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AtomicBoolean cookieSent = new AtomicBoolean();
+        ReplicaRoutingDataSource.bindSession(lastWrite(request), writtenAt -> {
+            // a escrita acontece antes do corpo ser escrito, então a resposta ainda aceita o cookie
+            if (!response.isCommitted() && cookieSent.compareAndSet(false, true)) {
+                Cookie cookie = new Cookie(LAST_WRITE_COOKIE, String.valueOf(writtenAt));
+                cookie.setPath("/api");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge(maxAgeSeconds);
+                response.addCookie(cookie);
+            }
+        });
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unbindSession();
+        }
+    }
+
+    private static Long lastWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (LAST_WRITE_COOKIE.equals(cookie.getName())) {
+                try {
+                    long lastWrite = Long.parseLong(cookie.getValue());
+                    return lastWrite <= System.currentTimeMillis() ? lastWrite : null;
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
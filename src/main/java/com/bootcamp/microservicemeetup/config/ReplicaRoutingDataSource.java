@@ -0,0 +1,134 @@
+package com.bootcamp.microservicemeetup.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * Transações read-only vão para as réplicas, em rodízio; o resto vai para a primária. A conexão física só é
+ * pedida no primeiro statement, quando o @Transactional já marcou a transação como read-only.
+ * Depois de uma escrita a sessão lê da primária por max-lag, o que dá read-your-writes enquanto a réplica
+ * ainda não recebeu a escrita. A sessão é a thread; nas requests o ReadYourWritesFilter a leva num cookie.
+ * Leituras que não podem vir de uma réplica atrasada usam {@link ReadFromPrimary}, que não conta como escrita.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Long> LAST_WRITE = new ThreadLocal<>();
+
+    private static final ThreadLocal<LongConsumer> WRITE_LISTENER = new ThreadLocal<>();
+
+    private static final ThreadLocal<Boolean> PRIMARY_READ = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+
+    private final List<HikariDataSource> replicas;
+
+    private final long maxLagMillis;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Duration maxLag) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is needed");
+        }
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLagMillis = maxLag.toMillis();
+
+        Router router = new Router();
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+    }
+
+    // lastWrite é o instante (epoch millis) da última escrita da sessão, ou null; onWrite é avisado a cada nova escrita
+    static void bindSession(Long lastWrite, LongConsumer onWrite) {
+        LAST_WRITE.set(lastWrite);
+        WRITE_LISTENER.set(onWrite);
+    }
+
+    static void unbindSession() {
+        LAST_WRITE.remove();
+        WRITE_LISTENER.remove();
+    }
+
+    // em volta dos métodos @ReadFromPrimary; restaura o valor anterior para chamadas aninhadas
+    static Object readFromPrimary(MethodInvocation invocation) throws Throwable {
+        Boolean previous = PRIMARY_READ.get();
+        PRIMARY_READ.set(Boolean.TRUE);
+        try {
+            return invocation.proceed();
+        } finally {
+            if (previous == null) {
+                PRIMARY_READ.remove();
+            } else {
+                PRIMARY_READ.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        primary.close();
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private boolean wroteRecently() {
+        Long lastWrite = LAST_WRITE.get();
+        return lastWrite != null && System.currentTimeMillis() - lastWrite < maxLagMillis;
+    }
+
+    // qualquer conexão de transação read-write conta como escrita, mesmo que a transação só tenha lido
+    private static void recordWrite() {
+        long now = System.currentTimeMillis();
+        LAST_WRITE.set(now);
+        LongConsumer listener = WRITE_LISTENER.get();
+        if (listener != null) {
+            listener.accept(now);
+        }
+    }
+
+    private final class Router extends AbstractRoutingDataSource {
+
+        private final List<String> replicaKeys = new ArrayList<>();
+
+        private final AtomicInteger next = new AtomicInteger();
+
+        private Router() {
+            Map<Object, Object> targets = new HashMap<>();
+            targets.put(PRIMARY, primary);
+            for (int i = 0; i < replicas.size(); i++) {
+                String key = "replica-" + (i + 1);
+                targets.put(key, replicas.get(i));
+                replicaKeys.add(key);
+            }
+            setTargetDataSources(targets);
+            setDefaultTargetDataSource(primary);
+        }
+
+        // sem transação (Flyway, validação do schema) a conexão vai para a primária e não conta como escrita
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                    recordWrite();
+                }
+                return PRIMARY;
+            }
+            if (PRIMARY_READ.get() != null || wroteRecently()) {
+                return PRIMARY;
+            }
+            return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.bootcamp.microservicemeetup.config;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// zera a contagem da thread na entrada e avisa no log quando a request passa do orçamento de statements (sinal de N+1).
+// a contagem não é zerada na saída para os testes conseguirem lê-la depois do perform; statements feitos
+// fora da thread da request (export assíncrono, write-behind) não entram na conta
+@Slf4j
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private final int statementBudget;
+
+    public StatementBudgetFilter(int statementBudget) {
+        this.statementBudget = statementBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCountHolder.clear();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCount count = QueryCountHolder.getGrandTotal();
+            if (count.getTotal() > statementBudget) {
+                log.warn("{} {} ran {} SQL statements ({} selects, {} inserts, {} updates, {} deletes) in {} ms, over the budget of {}",
+                        request.getMethod(), request.getRequestURI(), count.getTotal(), count.getSelect(), count.getInsert(),
+                        count.getUpdate(), count.getDelete(), count.getTime(), statementBudget);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.bootcamp.microservicemeetup.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// token bucket na forma de GCRA: o estado é um long só, o instante em que o balde volta a ficar cheio, então cada
+// tentativa é um CAS, sem lock e sem alocação. Uma recusa não escreve nada, o que mantém barato o cliente que inunda
+public final class TokenBucket {
+
+    private final long nanosPerToken;
+
+    private final long capacityNanos;
+
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double tokensPerSecond, int capacity, long nowNanos) {
+        if (tokensPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Invalid token bucket");
+        }
+        this.nanosPerToken = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+        this.capacityNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    // 0 quando o token foi consumido; senão quantos nanos faltam para o próximo
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + nanosPerToken;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // tempo para um balde vazio encher de novo
+    public long refillNanos() {
+        return capacityNanos;
+    }
+}
@@ -2,6 +2,7 @@ package com.bootcamp.microservicemeetup.controller;
 
 import com.bootcamp.microservicemeetup.controller.exceptions.ApiErrors;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -29,6 +30,14 @@ public class ApplicationControllerAdvice {
     }
 
 
+    // a versão do PUT ficou para trás de uma escrita concorrente
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ApiErrors handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        return new ApiErrors(e);
+    }
+
+
     @ExceptionHandler(ResponseStatusException.class)
     @ResponseStatus
     public ResponseEntity handleResponseStatusException(ResponseStatusException ex) {
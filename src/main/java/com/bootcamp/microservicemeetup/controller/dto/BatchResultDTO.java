@@ -0,0 +1,37 @@
+package com.bootcamp.microservicemeetup.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResultDTO {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private long processed;
+
+    private long created;
+
+    private long rejected;
+
+    private List<BatchErrorDTO> errors = new ArrayList<>();
+
+    public void accept() {
+        processed++;
+        created++;
+    }
+
+    public void reject(long position, String message) {
+        processed++;
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new BatchErrorDTO(position, message));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.bootcamp.microservicemeetup.controller.dto;
+
+import com.bootcamp.microservicemeetup.exception.BusinessException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Data
+@AllArgsConstructor
+public class KeysetCursor {
+
+    public static final String ORDER_BY_ID = "id";
+
+    public static final String ORDER_BY_MEETUP_DATE = "meetupDate";
+
+    private static final String SEPARATOR = "|";
+
+    private static final LocalDate MIN_MEETUP_DATE = LocalDate.of(1, 1, 1);
+
+    private String orderBy;
+
+    private Integer id;
+
+    private LocalDate meetupDate;
+
+    public static KeysetCursor first(String orderBy) {
+        if (ORDER_BY_ID.equals(orderBy)) {
+            return new KeysetCursor(orderBy, 0, null);
+        }
+        if (ORDER_BY_MEETUP_DATE.equals(orderBy)) {
+            return new KeysetCursor(orderBy, 0, MIN_MEETUP_DATE);
+        }
+        throw new BusinessException("Invalid cursor order");
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+            KeysetCursor cursor = first(parts[0]);
+            cursor.setId(Integer.valueOf(parts[1]));
+            // data vazia: o cursor já passou dos meetups com data e está nos sem data, que vêm por último
+            if (cursor.isOrderedByMeetupDate()) {
+                cursor.setMeetupDate(parts[2].isEmpty() ? null : LocalDate.parse(parts[2]));
+            }
+            return cursor;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("Invalid cursor");
+        }
+    }
+
+    public KeysetCursor next(Integer lastId, LocalDate lastMeetupDate) {
+        return new KeysetCursor(orderBy, lastId, isOrderedByMeetupDate() ? lastMeetupDate : null);
+    }
+
+    public String encode() {
+        String value = orderBy + SEPARATOR + id + SEPARATOR + (meetupDate == null ? "" : meetupDate);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isOrderedByMeetupDate() {
+        return ORDER_BY_MEETUP_DATE.equals(orderBy);
+    }
+}
@@ -22,4 +22,6 @@ public class MeetupDTO {
     private RegistrationDTO registration;
 
     private String meetupDate;
+
+    private Integer capacity;
 }
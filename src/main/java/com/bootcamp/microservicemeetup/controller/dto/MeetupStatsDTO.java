@@ -0,0 +1,19 @@
+package com.bootcamp.microservicemeetup.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// registrations por evento e por dia (dd/MM/yyyy, em ordem de data)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MeetupStatsDTO {
+
+    private Map<String, Long> events = new LinkedHashMap<>();
+
+    private Map<String, Long> days = new LinkedHashMap<>();
+}
@@ -0,0 +1,23 @@
+package com.bootcamp.microservicemeetup.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDTO {
+
+    private Integer meetupId;
+
+    @NotEmpty
+    private String registrationAttribute;
+
+    // nulo quando o meetup não tem limite de vagas
+    private Integer remainingSeats;
+}
@@ -1,6 +1,7 @@
 package com.bootcamp.microservicemeetup.controller.exceptions;
 
 import com.bootcamp.microservicemeetup.exception.BusinessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -26,6 +27,10 @@ public class ApiErrors {
         this.errors = Arrays.asList(e.getReason());
     }
 
+    public ApiErrors(OptimisticLockingFailureException e) {
+        this.errors = Arrays.asList("Resource was changed by another request");
+    }
+
     public List<String> getErrors() {
         return errors;
     }
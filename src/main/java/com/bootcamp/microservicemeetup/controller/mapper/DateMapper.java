@@ -0,0 +1,33 @@
+package com.bootcamp.microservicemeetup.controller.mapper;
+
+import com.bootcamp.microservicemeetup.exception.BusinessException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+
+// a API continua recebendo e devolvendo as datas no formato dd/MM/yyyy; só o banco passou a usar DATE
+public final class DateMapper {
+
+    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    private DateMapper() {
+    }
+
+    public static String asString(LocalDate date) {
+        return date == null ? null : DATE_FORMATTER.format(date);
+    }
+
+    public static LocalDate asLocalDate(String date) {
+        if (date == null || date.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date, DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("Invalid date");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.bootcamp.microservicemeetup.controller.mapper;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegisteredMeetupDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.view.MeetupView;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = {RegistrationMapper.class, DateMapper.class}, injectionStrategy = InjectionStrategy.CONSTRUCTOR)
+public interface MeetupMapper {
+
+    @Mapping(target = "registrationAttribute", source = "registration.registration")
+    MeetupDTO toDto(Meetup meetup);
+
+    @Mapping(target = "registrationAttribute", source = "registrationCode")
+    @Mapping(target = "registration.id", source = "registrationId")
+    @Mapping(target = "registration.name", source = "registrationName")
+    @Mapping(target = "registration.dateOfRegistration", source = "registrationDateOfRegistration")
+    @Mapping(target = "registration.registration", source = "registrationCode")
+    MeetupDTO toDto(MeetupView meetup);
+
+    RegisteredMeetupDTO toRegisteredDto(Meetup meetup);
+}
@@ -0,0 +1,20 @@
+package com.bootcamp.microservicemeetup.controller.mapper;
+
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.RegistrationView;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = DateMapper.class, injectionStrategy = InjectionStrategy.CONSTRUCTOR)
+public interface RegistrationMapper {
+
+    RegistrationDTO toDto(Registration registration);
+
+    RegistrationDTO toDto(RegistrationView registration);
+
+    @Mapping(target = "meetups", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Registration toEntity(RegistrationDTO registrationDTO);
+}
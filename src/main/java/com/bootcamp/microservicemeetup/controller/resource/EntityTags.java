@@ -0,0 +1,74 @@
+package com.bootcamp.microservicemeetup.controller.resource;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// ETags fortes a partir do @Version; If-None-Match compara de forma fraca e If-Match de forma forte (RFC 7232)
+final class EntityTags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private EntityTags() {
+    }
+
+    static String of(String versionTag) {
+        return '"' + versionTag + '"';
+    }
+
+    static boolean noneMatch(String ifNoneMatch, String eTag) {
+        return ifNoneMatch != null && matches(ifNoneMatch, eTag, true);
+    }
+
+    static boolean match(String ifMatch, String eTag) {
+        return ifMatch == null || matches(ifMatch, eTag, false);
+    }
+
+    // versão do próprio recurso no If-Match do PATCH, que vira condição do UPDATE; null quando não há condição.
+    // Só um ETag forte é aceito: um fraco ou uma lista nunca batem de forma forte com a versão única da linha
+    static Long version(String ifMatch) {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+        }
+        String versionTag = tag.substring(1, tag.length() - 1);
+        int separator = versionTag.indexOf('.');
+        try {
+            return Long.valueOf(separator < 0 ? versionTag : versionTag.substring(0, separator));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+
+    // só consultado quando o UPDATE condicional não achou a linha: sem versão no where ela não existe
+    static ResponseStatusException notFoundOrOutdated(Long version, Supplier<Optional<String>> currentVersionTag) {
+        if (version != null && currentVersionTag.get().isPresent()) {
+            return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+        }
+        return new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+
+    private static boolean matches(String header, String eTag, boolean weakComparison) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag)) {
+                return true;
+            }
+            if (tag.startsWith(WEAK_PREFIX)) {
+                if (!weakComparison) {
+                    continue;
+                }
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
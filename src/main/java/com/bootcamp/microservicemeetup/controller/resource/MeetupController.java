@@ -1,22 +1,50 @@
 package com.bootcamp.microservicemeetup.controller.resource;
 
+import com.bootcamp.microservicemeetup.config.MappingMetrics;
+import com.bootcamp.microservicemeetup.controller.dto.BatchResultDTO;
+import com.bootcamp.microservicemeetup.controller.dto.CursorPageDTO;
+import com.bootcamp.microservicemeetup.controller.dto.KeysetCursor;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
-import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupStatsDTO;
+import com.bootcamp.microservicemeetup.controller.dto.ReservationDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.DateMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapper;
+import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
 import com.bootcamp.microservicemeetup.service.MeetupService;
 import com.bootcamp.microservicemeetup.service.RegistrationService;
+import com.bootcamp.microservicemeetup.service.ReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.validation.Valid;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,9 +52,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MeetupController {
 
+    static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    static final String CSV_HEADER = "id,event,meetupDate,registration,name,dateOfRegistration";
+    static final String FORMAT_NDJSON = "ndjson";
+    static final String FORMAT_CSV = "csv";
+
     private final MeetupService meetupService;
     private final RegistrationService registrationService;
-    private final ModelMapper modelMapper;
+    private final ReservationService reservationService;
+    private final MeetupMapper meetupMapper;
+    private final MappingMetrics mappingMetrics;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -37,54 +73,233 @@ public class MeetupController {
         Meetup entity = Meetup.builder()
                 .registration(registration)
                 .event(meetupDTO.getEvent())
-                .meetupDate(meetupDTO.getMeetupDate())
+                .meetupDate(DateMapper.asLocalDate(meetupDTO.getMeetupDate()))
+                .capacity(meetupDTO.getCapacity())
                 .build();
 
         entity = meetupService.save(entity);
         return entity.getId();
     }
 
+    @PostMapping("batch")
+    public BatchResultDTO createBatch(@RequestBody List<MeetupDTO> meetupDTOs) {
+        BatchResultDTO result = new BatchResultDTO();
+
+        Set<String> registrationAttributes = meetupDTOs.stream()
+                .map(MeetupDTO::getRegistrationAttribute)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Registration> registrations = registrationService
+                .getRegistrationsByRegistrationAttributes(registrationAttributes)
+                .stream()
+                .collect(Collectors.toMap(Registration::getRegistration, Function.identity(), (first, second) -> first));
+
+        List<Meetup> meetups = new ArrayList<>(meetupDTOs.size());
+        List<Integer> positions = new ArrayList<>(meetupDTOs.size());
+        for (int i = 0; i < meetupDTOs.size(); i++) {
+            MeetupDTO meetupDTO = meetupDTOs.get(i);
+            Registration registration = registrations.get(meetupDTO.getRegistrationAttribute());
+            if (registration == null) {
+                result.reject(i + 1, "Registration not found");
+                continue;
+            }
+            LocalDate meetupDate;
+            try {
+                meetupDate = DateMapper.asLocalDate(meetupDTO.getMeetupDate());
+            } catch (BusinessException e) {
+                result.reject(i + 1, e.getMessage());
+                continue;
+            }
+            meetups.add(Meetup.builder()
+                    .registration(registration)
+                    .event(meetupDTO.getEvent())
+                    .meetupDate(meetupDate)
+                    .capacity(meetupDTO.getCapacity())
+                    .build());
+            positions.add(i + 1);
+        }
+
+        meetupService.saveAll(meetups);
+        for (int i = 0; i < meetups.size(); i++) {
+            if (meetups.get(i).getId() == null) {
+                result.reject(positions.get(i), "Meetup already created");
+            } else {
+                result.accept();
+            }
+        }
+        return result;
+    }
+
+    @PostMapping("{id}/reservations")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservationDTO reserve(@PathVariable Integer id, @RequestBody @Valid ReservationDTO reservationDTO) {
+        Registration registration = registrationService.getRegistrationByRegistrationAttribute(reservationDTO.getRegistrationAttribute())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST));
+        int remainingSeats = reservationService.reserve(id, registration)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        reservationDTO.setMeetupId(id);
+        reservationDTO.setRemainingSeats(remainingSeats == ReservationService.UNLIMITED ? null : remainingSeats);
+        return reservationDTO;
+    }
+
+    // um If-None-Match que bate é respondido só com a versão em cache, sem carregar o meetup
     @GetMapping("{id}")
-    public MeetupDTO findById(@PathVariable Integer id){
+    public ResponseEntity<MeetupDTO> findById(@PathVariable Integer id,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<String> eTag = meetupService.getVersionTag(id).map(EntityTags::of);
+            if (eTag.isPresent() && EntityTags.noneMatch(ifNoneMatch, eTag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+            }
+        }
         return meetupService.getById(id)
-                .map(meetup -> modelMapper.map(meetup, MeetupDTO.class))
+                .map(meetup -> ResponseEntity.ok()
+                        .eTag(EntityTags.of(MeetupService.versionTag(meetup)))
+                        .body(meetupMapper.toDto(meetup)))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping
     public Page<MeetupDTO> find(MeetupFilterDTO dto, Pageable pageRequest) {
-        Page<Meetup> result = meetupService.find(dto, pageRequest);
-        List<MeetupDTO> meetups = result
-                .getContent()
-                .stream()
-                .map(entity -> {
+        return mappingMetrics.map(MeetupMapper.class, meetupService.find(dto, pageRequest), meetupMapper::toDto);
+    }
 
-                    Registration registration = entity.getRegistration();
-                    RegistrationDTO registrationDTO = modelMapper.map(registration, RegistrationDTO.class);
+    @GetMapping(params = {"from", "to"})
+    public Page<MeetupDTO> findByMeetupDate(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            Pageable pageRequest) {
+        return mappingMetrics.map(MeetupMapper.class, meetupService.findByMeetupDate(from, to, pageRequest), meetupMapper::toDto);
+    }
+
+    // sem filtro devolve todos os eventos e dias; com event e/ou day só as contagens pedidas, mesmo que zero
+    @GetMapping("stats")
+    public MeetupStatsDTO stats(@RequestParam(required = false) String event,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        MeetupStatsDTO stats = new MeetupStatsDTO();
+        if (event == null && day == null) {
+            stats.getEvents().putAll(meetupService.countRegistrationsByEvent());
+            meetupService.countRegistrationsByMeetupDate()
+                    .forEach((meetupDate, count) -> stats.getDays().put(DateMapper.asString(meetupDate), count));
+            return stats;
+        }
+        if (event != null) {
+            stats.getEvents().put(event, meetupService.countRegistrationsByEvent(event));
+        }
+        if (day != null) {
+            stats.getDays().put(DateMapper.asString(day), meetupService.countRegistrationsByMeetupDate(day));
+        }
+        return stats;
+    }
+
+    @GetMapping(params = "cursor")
+    public CursorPageDTO<MeetupDTO> findByCursor(MeetupFilterDTO dto,
+                                                 @RequestParam String cursor,
+                                                 @RequestParam(defaultValue = KeysetCursor.ORDER_BY_ID) String orderBy,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new BusinessException("Invalid page size");
+        }
+        KeysetCursor keysetCursor = cursor.isEmpty() ? KeysetCursor.first(orderBy) : KeysetCursor.decode(cursor);
+        Slice<Meetup> result = meetupService.findAfter(dto, keysetCursor, size);
+
+        List<Meetup> content = result.getContent();
+        List<MeetupDTO> meetups = mappingMetrics.map(MeetupMapper.class, content, meetupMapper::toDto);
+        String nextCursor = null;
+        if (result.hasNext()) {
+            Meetup last = content.get(content.size() - 1);
+            nextCursor = keysetCursor.next(last.getId(), last.getMeetupDate()).encode();
+        }
+        return new CursorPageDTO<>(meetups, nextCursor);
+    }
+
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> export(MeetupFilterDTO dto,
+                                                        @RequestParam(defaultValue = FORMAT_NDJSON) String format) {
+        boolean csv = FORMAT_CSV.equals(format);
+        if (!csv && !FORMAT_NDJSON.equals(format)) {
+            throw new BusinessException("Invalid export format");
+        }
 
-                    MeetupDTO meetupDTO = modelMapper.map(entity, MeetupDTO.class);
-                    meetupDTO.setRegistration(registrationDTO);
-                    return meetupDTO;
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (csv) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            meetupService.export(dto, meetup -> {
+                try {
+                    writer.write(csv ? toCsvLine(meetup) : objectMapper.writeValueAsString(meetupMapper.toDto(meetup)));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
 
-                }).collect(Collectors.toList());
-        return new PageImpl<MeetupDTO>(meetups, pageRequest, result.getTotalElements());
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
+    // o meetup volta com a versão lida aqui, então uma escrita concorrente entre a leitura e o save também dá 412
     @PutMapping("{id}")
-    public MeetupDTO update(@PathVariable Integer id, MeetupDTO meetupDTO) {
+    public ResponseEntity<MeetupDTO> update(@PathVariable Integer id, MeetupDTO meetupDTO,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         return meetupService.getById(id).map(meetup -> {
+            if (!EntityTags.match(ifMatch, EntityTags.of(MeetupService.versionTag(meetup)))) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+            }
             meetup.setEvent(meetupDTO.getEvent());
-            meetup.setMeetupDate(meetupDTO.getMeetupDate());
+            meetup.setMeetupDate(DateMapper.asLocalDate(meetupDTO.getMeetupDate()));
             meetup = meetupService.update(meetup);
 
-            return modelMapper.map(meetup, MeetupDTO.class);
+            return ResponseEntity.ok()
+                    .eTag(EntityTags.of(MeetupService.versionTag(meetup)))
+                    .body(meetupMapper.toDto(meetup));
         }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
+    // só os campos presentes no corpo mudam; a versão do If-Match vai para o where do UPDATE.
+    // A registration não muda aqui, então só a versão do meetup (antes do ponto no ETag) é conferida
+    @PatchMapping("{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patch(@PathVariable Integer id, @RequestBody MeetupDTO meetupDTO,
+                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = EntityTags.version(ifMatch);
+        if (!meetupService.patch(id, meetupDTO.getEvent(), DateMapper.asLocalDate(meetupDTO.getMeetupDate()), version)) {
+            throw EntityTags.notFoundOrOutdated(version, () -> meetupService.getVersionTag(id));
+        }
+    }
+
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteByMeetupId(@PathVariable Integer id) {
-        Meetup meetup = meetupService.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        meetupService.delete(meetup);
+        if (!meetupService.deleteById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    private static String toCsvLine(Meetup meetup) {
+        Registration registration = meetup.getRegistration();
+        return String.join(",",
+                toCsvField(meetup.getId()),
+                toCsvField(meetup.getEvent()),
+                toCsvField(DateMapper.asString(meetup.getMeetupDate())),
+                toCsvField(registration == null ? null : registration.getRegistration()),
+                toCsvField(registration == null ? null : registration.getName()),
+                toCsvField(registration == null ? null : DateMapper.asString(registration.getDateOfRegistration())));
+    }
+
+    private static String toCsvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
     }
 }
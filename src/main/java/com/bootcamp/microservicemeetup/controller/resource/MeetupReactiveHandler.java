@@ -0,0 +1,87 @@
+package com.bootcamp.microservicemeetup.controller.resource;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.controller.exceptions.ApiErrors;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapper;
+import com.bootcamp.microservicemeetup.exception.BusinessException;
+import com.bootcamp.microservicemeetup.service.MeetupReactiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+// versão não bloqueante dos GETs do MeetupController; a ordenação é sempre por id, o parâmetro sort é ignorado
+@Component
+@ConditionalOnProperty(name = "meetup.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class MeetupReactiveHandler {
+
+    static final String BASE_PATH = "/api/meetups";
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 2000;
+
+    private final MeetupReactiveService meetupReactiveService;
+    private final MeetupMapper meetupMapper;
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET(BASE_PATH + "/{id}", this::findById)
+                .GET(BASE_PATH, this::find)
+                .onError(BusinessException.class, (e, request) -> ServerResponse.badRequest()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new ApiErrors((BusinessException) e)))
+                .onError(ResponseStatusException.class, (e, request) -> ServerResponse.status(((ResponseStatusException) e).getStatus())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new ApiErrors((ResponseStatusException) e)))
+                .build();
+    }
+
+    Mono<ServerResponse> findById(ServerRequest request) {
+        Integer id;
+        try {
+            id = Integer.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return Mono.error(new BusinessException("Invalid id"));
+        }
+        return meetupReactiveService.getById(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .flatMap(meetup -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(meetupMapper.toDto(meetup)));
+    }
+
+    Mono<ServerResponse> find(ServerRequest request) {
+        MeetupFilterDTO filter = MeetupFilterDTO.builder()
+                .event(request.queryParam("event").orElse(null))
+                .registration(request.queryParam("registration").orElse(null))
+                .build();
+        return meetupReactiveService.find(filter, pageable(request))
+                .flatMap(page -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(page.map(meetupMapper::toDto)));
+    }
+
+    // mesmos defaults e limites do PageableHandlerMethodArgumentResolver do Spring MVC
+    private static Pageable pageable(ServerRequest request) {
+        int page = intParam(request, "page", 0);
+        int size = intParam(request, "size", DEFAULT_PAGE_SIZE);
+        return PageRequest.of(Math.max(page, 0), size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        try {
+            return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -1,85 +1,327 @@
 package com.bootcamp.microservicemeetup.controller.resource;
 
+import com.bootcamp.microservicemeetup.config.MappingMetrics;
+import com.bootcamp.microservicemeetup.controller.dto.BatchResultDTO;
+import com.bootcamp.microservicemeetup.controller.dto.CursorPageDTO;
+import com.bootcamp.microservicemeetup.controller.dto.KeysetCursor;
 import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.DateMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapper;
+import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
 import com.bootcamp.microservicemeetup.service.RegistrationService;
-import org.modelmapper.ModelMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/registration")
 public class RegistrationController {
 
+    static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    static final String CSV_HEADER = "name,dateOfRegistration,registration";
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
     private RegistrationService registrationService;
 
-    private ModelMapper modelMapper;
+    private RegistrationMapper registrationMapper;
+
+    private MappingMetrics mappingMetrics;
 
+    private ObjectMapper objectMapper;
 
-    public RegistrationController(RegistrationService registrationService, ModelMapper modelMapper) {
+    private Validator validator;
+
+    private int importChunkSize;
+
+
+    public RegistrationController(RegistrationService registrationService,
+                                  RegistrationMapper registrationMapper,
+                                  MappingMetrics mappingMetrics,
+                                  ObjectMapper objectMapper,
+                                  Validator validator,
+                                  @Value("${meetup.registration.import.chunk-size}") int importChunkSize) {
         this.registrationService = registrationService;
-        this.modelMapper = modelMapper;
+        this.registrationMapper = registrationMapper;
+        this.mappingMetrics = mappingMetrics;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.importChunkSize = importChunkSize;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public RegistrationDTO create(@RequestBody @Valid RegistrationDTO dto) {
 
-        Registration entity = modelMapper.map(dto, Registration.class);
+        Registration entity = registrationMapper.toEntity(dto);
         entity = registrationService.save(entity);
 
-        return modelMapper.map(entity, RegistrationDTO.class);
+        return registrationMapper.toDto(entity);
     }
 
-    @GetMapping("{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public RegistrationDTO get (@PathVariable Integer id) {
+    @PostMapping(value = "batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public BatchResultDTO createBatchFromNdjson(InputStream body) throws IOException {
+        return importRegistrations(body, this::parseJsonLine);
+    }
+
+    @PostMapping(value = "batch", consumes = TEXT_CSV_VALUE)
+    public BatchResultDTO createBatchFromCsv(InputStream body) throws IOException {
+        return importRegistrations(body, this::parseCsvLine);
+    }
 
+    // um If-None-Match que bate é respondido só com a versão em cache, sem carregar a registration
+    @GetMapping("{id}")
+    public ResponseEntity<RegistrationDTO> get (@PathVariable Integer id,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<String> eTag = registrationService.getVersionTag(id).map(EntityTags::of);
+            if (eTag.isPresent() && EntityTags.noneMatch(ifNoneMatch, eTag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+            }
+        }
         return registrationService
                 .getRegistrationById(id)
-                .map(registration -> modelMapper.map(registration, RegistrationDTO.class))
+                .map(registration -> ResponseEntity.ok()
+                        .eTag(EntityTags.of(RegistrationService.versionTag(registration)))
+                        .body(registrationMapper.toDto(registration)))
                 .orElseThrow(()-> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteByRegistrationId(@PathVariable Integer id) {
-        Registration registration = registrationService.getRegistrationById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        registrationService.delete(registration);
+        if (!registrationService.deleteById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // só os campos presentes no corpo mudam; o código da registration não é alterado por aqui
+    @PatchMapping("{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patch(@PathVariable Integer id, @RequestBody RegistrationDTO registrationDTO,
+                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = EntityTags.version(ifMatch);
+        if (!registrationService.patch(id, registrationDTO.getName(),
+                DateMapper.asLocalDate(registrationDTO.getDateOfRegistration()), version)) {
+            throw EntityTags.notFoundOrOutdated(version, () -> registrationService.getVersionTag(id));
+        }
     }
 
 
     @PutMapping("{id}")
-    public RegistrationDTO update(@PathVariable Integer id, RegistrationDTO registrationDTO) {
+    public ResponseEntity<RegistrationDTO> update(@PathVariable Integer id, RegistrationDTO registrationDTO,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         return registrationService.getRegistrationById(id).map(registration -> {
+            if (!EntityTags.match(ifMatch, EntityTags.of(RegistrationService.versionTag(registration)))) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+            }
             registration.setName(registrationDTO.getName());
-            registration.setDateOfRegistration(registrationDTO.getDateOfRegistration());
+            registration.setDateOfRegistration(DateMapper.asLocalDate(registrationDTO.getDateOfRegistration()));
             registration = registrationService.update(registration);
 
-            return modelMapper.map(registration, RegistrationDTO.class);
+            return ResponseEntity.ok()
+                    .eTag(EntityTags.of(RegistrationService.versionTag(registration)))
+                    .body(registrationMapper.toDto(registration));
         }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 
     }
 
     @GetMapping
     public Page<RegistrationDTO> find(RegistrationDTO dto, Pageable pageRequest) {
-        Registration filter = modelMapper.map(dto, Registration.class);
-        Page<Registration> result = registrationService.find(filter, pageRequest);
+        Registration filter = registrationMapper.toEntity(dto);
 
-        List<RegistrationDTO> list = result.getContent()
-                .stream()
-                .map(entity -> modelMapper.map(entity, RegistrationDTO.class))
-                .collect(Collectors.toList());
+        return mappingMetrics.map(RegistrationMapper.class, registrationService.find(filter, pageRequest), registrationMapper::toDto);
+    }
+
+    @GetMapping(params = "cursor")
+    public CursorPageDTO<RegistrationDTO> findByCursor(RegistrationDTO dto,
+                                                       @RequestParam String cursor,
+                                                       @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new BusinessException("Invalid page size");
+        }
+        KeysetCursor keysetCursor = cursor.isEmpty() ? KeysetCursor.first(KeysetCursor.ORDER_BY_ID) : KeysetCursor.decode(cursor);
+        Slice<Registration> result = registrationService.findAfter(registrationMapper.toEntity(dto), keysetCursor, size);
+
+        List<Registration> content = result.getContent();
+        List<RegistrationDTO> registrations = mappingMetrics.map(RegistrationMapper.class, content, registrationMapper::toDto);
+        String nextCursor = null;
+        if (result.hasNext()) {
+            nextCursor = keysetCursor.next(content.get(content.size() - 1).getId(), null).encode();
+        }
+        return new CursorPageDTO<>(registrations, nextCursor);
+    }
+
+    // lê o corpo linha a linha e grava em blocos, então a memória não cresce com o tamanho do arquivo
+    private BatchResultDTO importRegistrations(InputStream body, Function<String, RegistrationDTO> parser) throws IOException {
+        BatchResultDTO result = new BatchResultDTO();
+        List<Registration> chunk = new ArrayList<>(importChunkSize);
+        List<Long> chunkLines = new ArrayList<>(importChunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            RegistrationDTO dto;
+            try {
+                dto = parser.apply(line);
+            } catch (RuntimeException e) {
+                result.reject(lineNumber, "Invalid row");
+                continue;
+            }
+            if (dto == null) {
+                continue;
+            }
+
+            Set<ConstraintViolation<RegistrationDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<RegistrationDTO> violation = violations.iterator().next();
+                result.reject(lineNumber, violation.getPropertyPath() + " " + violation.getMessage());
+                continue;
+            }
+
+            Registration registration;
+            try {
+                registration = registrationMapper.toEntity(dto);
+            } catch (BusinessException e) {
+                result.reject(lineNumber, e.getMessage());
+                continue;
+            }
+            registration.setId(null);
+            chunk.add(registration);
+            chunkLines.add(lineNumber);
+            if (chunk.size() == importChunkSize) {
+                saveChunk(chunk, chunkLines, result);
+            }
+        }
+        saveChunk(chunk, chunkLines, result);
+        return result;
+    }
+
+    private void saveChunk(List<Registration> chunk, List<Long> chunkLines, BatchResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // o bloco é uma transação: se falhar, nenhuma linha dele foi gravada e os blocos anteriores continuam valendo
+        boolean saved;
+        try {
+            registrationService.saveAll(chunk);
+            saved = true;
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Could not save a chunk of {} registrations starting at line {}", chunk.size(), chunkLines.get(0), e);
+            saved = false;
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            if (!saved) {
+                result.reject(chunkLines.get(i), "Registration not saved");
+            } else if (chunk.get(i).getId() == null) {
+                result.reject(chunkLines.get(i), "Registration already created");
+            } else {
+                result.accept();
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private RegistrationDTO parseJsonLine(String line) {
+        try {
+            return objectMapper.readValue(line, RegistrationDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private RegistrationDTO parseCsvLine(String line) {
+        if (line.trim().equalsIgnoreCase(CSV_HEADER)) {
+            return null;
+        }
+        List<String> columns = splitCsvLine(line);
+        if (columns.size() != 3) {
+            throw new IllegalArgumentException("Expected " + CSV_HEADER);
+        }
+        return RegistrationDTO.builder()
+                .name(columns.get(0).trim())
+                .dateOfRegistration(columns.get(1).trim())
+                .registration(columns.get(2).trim())
+                .build();
+    }
 
-        return new PageImpl<RegistrationDTO>(list, pageRequest, result.getTotalElements());
+    // campos entre aspas como na RFC 4180 e no export de meetups: vírgula dentro das aspas e "" para uma aspa.
+    // Como o import lê linha a linha, quebra de linha dentro de um campo não é aceita e a linha é rejeitada
+    private static List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        int i = 0;
+        while (true) {
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        column.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        column.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Unexpected character after quoted field");
+                }
+            } else {
+                int end = line.indexOf(',', i);
+                column.append(line, i, end < 0 ? line.length() : end);
+                if (column.indexOf("\"") >= 0) {
+                    throw new IllegalArgumentException("Quote in unquoted field");
+                }
+                i = end < 0 ? line.length() : end;
+            }
+            columns.add(column.toString());
+            column.setLength(0);
+            if (i >= line.length()) {
+                return columns;
+            }
+            i++;
+        }
     }
 }
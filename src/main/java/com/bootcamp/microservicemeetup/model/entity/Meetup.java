@@ -2,33 +2,74 @@ package com.bootcamp.microservicemeetup.model.entity;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
+import java.time.LocalDate;
 
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Meetup.CACHE_REGION)
+@NamedEntityGraph(name = Meetup.WITH_REGISTRATION, attributeNodes = @NamedAttributeNode("registration"))
 public class Meetup {
 
+    public static final String CACHE_REGION = "meetup";
+
+    public static final String WITH_REGISTRATION = "Meetup.registration";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meetup_seq")
+    @SequenceGenerator(name = "meetup_seq", sequenceName = "meetup_seq", allocationSize = 50)
     private Integer id;
 
     @Column
     private String event;
 
     @JoinColumn(name = "id_registration")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     // mtos meetups para 1 registro - registro só pode ir em um meetup
     private Registration registration;
 
-    @Column
-    private String meetupDate;
+    @Column(name = "meetup_date")
+    private LocalDate meetupDate;
 
     @Column
     private Boolean registered;
+
+    @Column
+    private Integer capacity;
+
+    @Version
+    private Long version;
+
+    // só pelo id, para comparar um meetup com o proxy dele não carregar nada; sem id, só a própria instância
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) {
+            return false;
+        }
+        Integer id = getId();
+        return id != null && id.equals(((Meetup) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Meetup.class.hashCode();
+    }
 }
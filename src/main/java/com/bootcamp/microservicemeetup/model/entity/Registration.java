@@ -2,35 +2,71 @@ package com.bootcamp.microservicemeetup.model.entity;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
+import java.time.LocalDate;
 import java.util.List;
 
-@Data
+@Getter
+@Setter
+@ToString
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
 @Table
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Registration.CACHE_REGION)
 public class Registration {
 
+    // lida em todo load de meetup e raramente escrita; READ_WRITE porque update e delete passam pelo Hibernate
+    public static final String CACHE_REGION = "registration";
+
     @Id
     @Column(name = "registration_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // sequence em vez de IDENTITY para o Hibernate conseguir agrupar os inserts em batch
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registration_seq")
+    @SequenceGenerator(name = "registration_seq", sequenceName = "registration_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "person_name")
     private String name;
 
     @Column(name = "date_of_registration")
-    private String dateOfRegistration;
+    private LocalDate dateOfRegistration;
 
     @Column
     private String registration;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "registration")
+    @ToString.Exclude
     private List<Meetup> meetups;
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) {
+            return false;
+        }
+        Integer id = getId();
+        return id != null && id.equals(((Registration) o).getId());
+    }
+
+    // constante para o hash não mudar quando o save atribui o id a uma registration que já está num Set
+    @Override
+    public int hashCode() {
+        return Registration.class.hashCode();
+    }
 }
@@ -0,0 +1,34 @@
+package com.bootcamp.microservicemeetup.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_reservation_meetup_registration",
+        columnNames = {"id_meetup", "id_registration"}))
+public class Reservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_seq", allocationSize = 50)
+    private Integer id;
+
+    // só os ids: a gravação é em lote, fora da request, e não precisa carregar meetup nem registration
+    @Column(name = "id_meetup")
+    private Integer meetupId;
+
+    @Column(name = "id_registration")
+    private Integer registrationId;
+
+    @Column(name = "reserved_at")
+    private LocalDateTime reservedAt;
+}
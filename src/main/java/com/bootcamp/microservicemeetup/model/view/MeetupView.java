@@ -0,0 +1,29 @@
+package com.bootcamp.microservicemeetup.model.view;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Linha de uma página de meetups: só as colunas que o MeetupDTO usa, lidas direto da consulta,
+ * sem entidade gerenciada nem registro no contexto de persistência.
+ */
+@Value
+public class MeetupView {
+
+    Integer id;
+
+    String event;
+
+    LocalDate meetupDate;
+
+    Integer capacity;
+
+    Integer registrationId;
+
+    String registrationName;
+
+    LocalDate registrationDateOfRegistration;
+
+    String registrationCode;
+}
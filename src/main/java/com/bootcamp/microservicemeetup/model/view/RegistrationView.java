@@ -0,0 +1,20 @@
+package com.bootcamp.microservicemeetup.model.view;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Linha de uma página de registrations, com as colunas do RegistrationDTO.
+ */
+@Value
+public class RegistrationView {
+
+    Integer id;
+
+    String name;
+
+    LocalDate dateOfRegistration;
+
+    String registration;
+}
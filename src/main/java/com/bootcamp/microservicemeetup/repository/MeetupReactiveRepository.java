@@ -0,0 +1,98 @@
+package com.bootcamp.microservicemeetup.repository;
+
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+// mesmas tabelas do MeetupRepository, lidas pelo driver R2DBC; as entidades voltam desanexadas, só para leitura
+@Repository
+@ConditionalOnProperty(name = "meetup.reactive.enabled", havingValue = "true")
+public class MeetupReactiveRepository {
+
+    private static final String COLUMNS = "select m.id, m.event, m.meetup_date, m.registered, m.capacity, " +
+            "r.registration_id, r.person_name, r.date_of_registration, r.registration ";
+
+    // a listagem do MeetupRepository faz join com a registration, então meetup sem registration fica de fora dela;
+    // por id ele aparece, como no findById
+    private static final String FROM_MEETUP = "from meetup m join registration r on r.registration_id = m.id_registration ";
+
+    private static final String SELECT_MEETUP = COLUMNS + FROM_MEETUP;
+
+    private static final String SELECT_MEETUP_BY_ID = COLUMNS +
+            "from meetup m left join registration r on r.registration_id = m.id_registration where m.id = :id";
+
+    private final DatabaseClient databaseClient;
+
+    public MeetupReactiveRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Meetup> findById(Integer id) {
+        return databaseClient.sql(SELECT_MEETUP_BY_ID)
+                .bind("id", id)
+                .map(MeetupReactiveRepository::toMeetup)
+                .one();
+    }
+
+    // pelo menos um dos filtros precisa vir preenchido
+    public Flux<Meetup> find(String event, String registration, Pageable pageable) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql(SELECT_MEETUP + where(event, registration) + "order by m.id limit :limit offset :offset");
+        return bind(spec, event, registration)
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map(MeetupReactiveRepository::toMeetup)
+                .all();
+    }
+
+    public Mono<Long> count(String event, String registration) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql("select count(*) " + FROM_MEETUP + where(event, registration));
+        return bind(spec, event, registration)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private static String where(String event, String registration) {
+        if (event != null && registration != null) {
+            return "where m.event = :event or r.registration = :registration ";
+        }
+        return event != null ? "where m.event = :event " : "where r.registration = :registration ";
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String event, String registration) {
+        if (event != null) {
+            spec = spec.bind("event", event);
+        }
+        if (registration != null) {
+            spec = spec.bind("registration", registration);
+        }
+        return spec;
+    }
+
+    private static Meetup toMeetup(Row row) {
+        Integer registrationId = row.get("registration_id", Integer.class);
+        Registration registration = registrationId == null ? null : Registration.builder()
+                .id(registrationId)
+                .name(row.get("person_name", String.class))
+                .dateOfRegistration(row.get("date_of_registration", LocalDate.class))
+                .registration(row.get("registration", String.class))
+                .build();
+        return Meetup.builder()
+                .id(row.get("id", Integer.class))
+                .event(row.get("event", String.class))
+                .meetupDate(row.get("meetup_date", LocalDate.class))
+                .registered(row.get("registered", Boolean.class))
+                .capacity(row.get("capacity", Integer.class))
+                .registration(registration)
+                .build();
+    }
+}
@@ -2,20 +2,138 @@ package com.bootcamp.microservicemeetup.repository;
 
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.MeetupView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 public interface MeetupRepository extends JpaRepository<Meetup, Integer> {
 
-    @Query( value = " select l from Meetup as l join l.registration as b where b.registration = :registration or l.event =:event ")
-    Page<Meetup> findByRegistrationOnMeetup(
+    // páginas de listagem saem direto em MeetupView, sem hidratar nem gerenciar Meetup e Registration
+    String MEETUP_VIEW = " select new com.bootcamp.microservicemeetup.model.view.MeetupView(l.id, l.event, l.meetupDate, " +
+            "l.capacity, b.id, b.name, b.dateOfRegistration, b.registration) from Meetup as l join l.registration as b ";
+
+    @Query( value = MEETUP_VIEW + "where b.registration = :registration or l.event =:event ",
+            countQuery = " select count(l) from Meetup as l where l.registration is not null and " +
+                    "( l.event = :event or l.registration in ( select b from Registration as b where b.registration = :registration ) ) ")
+    Page<MeetupView> findByRegistrationOnMeetup(
+            @Param("registration") String registration,
+            @Param("event") String event,
+            Pageable pageable
+    );
+
+    @Query( value = MEETUP_VIEW + "where l.event = :event ",
+            countQuery = " select count(l) from Meetup as l where l.event = :event and l.registration is not null ")
+    Page<MeetupView> findByEventOnMeetup(
+            @Param("event") String event,
+            Pageable pageable
+    );
+
+    @Query( value = MEETUP_VIEW + "where b.registration = :registration ",
+            countQuery = " select count(l) from Meetup as l join l.registration as b where b.registration = :registration ")
+    Page<MeetupView> findByRegistrationCodeOnMeetup(
+            @Param("registration") String registration,
+            Pageable pageable
+    );
+
+    @Query( value = " select l from Meetup as l join fetch l.registration as b where ( b.registration = :registration or l.event = :event ) " +
+            "and l.id > :id order by l.id ")
+    Slice<Meetup> findByRegistrationOnMeetupAfterId(
             @Param("registration") String registration,
             @Param("event") String event,
+            @Param("id") Integer id,
             Pageable pageable
     );
 
+    // meetups sem data vão para o fim (nulls last): o cursor sobre uma data ainda os inclui e,
+    // depois que a página chega neles, a paginação segue só por id em findByRegistrationOnMeetupWithoutDateAfterId
+    @Query( value = " select l from Meetup as l join fetch l.registration as b where ( b.registration = :registration or l.event = :event ) " +
+            "and ( l.meetupDate > :meetupDate or ( l.meetupDate = :meetupDate and l.id > :id ) or l.meetupDate is null ) " +
+            "order by l.meetupDate asc nulls last, l.id ")
+    Slice<Meetup> findByRegistrationOnMeetupAfterMeetupDate(
+            @Param("registration") String registration,
+            @Param("event") String event,
+            @Param("meetupDate") LocalDate meetupDate,
+            @Param("id") Integer id,
+            Pageable pageable
+    );
+
+    @Query( value = " select l from Meetup as l join fetch l.registration as b where ( b.registration = :registration or l.event = :event ) " +
+            "and l.meetupDate is null and l.id > :id order by l.id ")
+    Slice<Meetup> findByRegistrationOnMeetupWithoutDateAfterId(
+            @Param("registration") String registration,
+            @Param("event") String event,
+            @Param("id") Integer id,
+            Pageable pageable
+    );
+
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query( value = " select l from Meetup as l join fetch l.registration as b where b.registration = :registration or l.event = :event order by l.id ")
+    Stream<Meetup> streamByRegistrationOnMeetup(
+            @Param("registration") String registration,
+            @Param("event") String event
+    );
+
+    @EntityGraph(Meetup.WITH_REGISTRATION)
+    @Query( value = " select l from Meetup as l where l.meetupDate between :from and :to ",
+            countQuery = " select count(l) from Meetup as l where l.meetupDate between :from and :to ")
+    Page<Meetup> findByMeetupDateBetween(
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            Pageable pageable
+    );
+
+    // o em.find continua passando pelo cache de segundo nível; o grafo só vale quando o meetup vem do banco
+    @Override
+    @EntityGraph(Meetup.WITH_REGISTRATION)
+    Optional<Meetup> findById(Integer id);
+
+    @Query( value = " select l.id, l.capacity from Meetup as l ")
+    Stream<Object[]> streamCapacities();
+
+    // cada meetup com registration conta uma inscrição no evento e no dia dele
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query( value = " select l.id, l.event, l.meetupDate from Meetup as l where l.registration is not null ")
+    Stream<Object[]> streamStatsKeys();
+
     Page<Meetup> findByRegistration(Registration registration, Pageable pageable );
+
+    @Query( value = " select l.version as version, b.version as registrationVersion from Meetup as l left join l.registration as b where l.id = :id ")
+    Optional<MeetupVersion> findVersionById(@Param("id") Integer id);
+
+    // campos nulos ficam como estão; com version nula a escrita não depende da versão lida pelo cliente
+    @Modifying
+    @Query( value = " update Meetup as l set l.event = coalesce(:event, l.event), l.meetupDate = coalesce(:meetupDate, l.meetupDate), " +
+            "l.version = l.version + 1 where l.id = :id and ( :version is null or l.version = :version ) ")
+    int patchById(
+            @Param("id") Integer id,
+            @Param("event") String event,
+            @Param("meetupDate") LocalDate meetupDate,
+            @Param("version") Long version
+    );
+
+    @Modifying
+    @Query( value = " delete from Meetup as l where l.id = :id ")
+    int bulkDeleteById(@Param("id") Integer id);
+
+    interface MeetupVersion {
+
+        Long getVersion();
+
+        Long getRegistrationVersion();
+    }
 }
@@ -1,13 +1,96 @@
 package com.bootcamp.microservicemeetup.repository;
 
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.RegistrationView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 public interface RegistrationRepository extends JpaRepository<Registration, Integer> {
 
+    String REGISTRATION_VIEW = " select new com.bootcamp.microservicemeetup.model.view.RegistrationView(r.id, r.name, " +
+            "r.dateOfRegistration, r.registration) from Registration as r ";
+
+    // no cache de queries: qualquer escrita na tabela registration pelo Hibernate invalida os resultados guardados
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     boolean existsByRegistration(String registration);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Registration> findByRegistration(String registrationAtrb);
+
+    List<Registration> findByRegistrationIn(Collection<String> registrationAtrbs);
+
+    @Query( value = " select r.registration from Registration as r where r.registration in :registrations ")
+    List<String> findExistingRegistrations(@Param("registrations") Collection<String> registrations);
+
+    @Query( value = " select r.registration from Registration as r ")
+    Stream<String> streamAllRegistrations();
+
+    @Query( value = " select r.id, r.name, r.dateOfRegistration, r.registration from Registration as r ")
+    Stream<Object[]> streamSearchableFields();
+
+    @Query( value = REGISTRATION_VIEW + "where r.id in :ids ")
+    List<RegistrationView> findViewsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // mesmo critério do Example que o find usava: contém sem diferenciar maiúsculas nos textos, data exata
+    @Query( value = REGISTRATION_VIEW + "where " +
+            "( :name is null or lower(r.name) like lower(concat('%', :name, '%')) ) " +
+            "and ( :dateOfRegistration is null or r.dateOfRegistration = :dateOfRegistration ) " +
+            "and ( :registration is null or lower(r.registration) like lower(concat('%', :registration, '%')) ) ",
+            countQuery = " select count(r) from Registration as r where " +
+                    "( :name is null or lower(r.name) like lower(concat('%', :name, '%')) ) " +
+                    "and ( :dateOfRegistration is null or r.dateOfRegistration = :dateOfRegistration ) " +
+                    "and ( :registration is null or lower(r.registration) like lower(concat('%', :registration, '%')) ) ")
+    Page<RegistrationView> findViewsByFilter(
+            @Param("name") String name,
+            @Param("dateOfRegistration") LocalDate dateOfRegistration,
+            @Param("registration") String registration,
+            Pageable pageable
+    );
+
+    @Query( value = " select r from Registration as r where " +
+            "( :name is null or lower(r.name) like lower(concat('%', :name, '%')) ) " +
+            "and ( :dateOfRegistration is null or r.dateOfRegistration = :dateOfRegistration ) " +
+            "and ( :registration is null or lower(r.registration) like lower(concat('%', :registration, '%')) ) " +
+            "and r.id > :id order by r.id ")
+    Slice<Registration> findByFilterAfterId(
+            @Param("name") String name,
+            @Param("dateOfRegistration") LocalDate dateOfRegistration,
+            @Param("registration") String registration,
+            @Param("id") Integer id,
+            Pageable pageable
+    );
+
+    @Query( value = " select r.version from Registration as r where r.id = :id ")
+    Optional<Long> findVersionById(@Param("id") Integer id);
+
+    // campos nulos ficam como estão; com version nula a escrita não depende da versão lida pelo cliente
+    @Modifying
+    @Query( value = " update Registration as r set r.name = coalesce(:name, r.name), " +
+            "r.dateOfRegistration = coalesce(:dateOfRegistration, r.dateOfRegistration), " +
+            "r.version = r.version + 1 where r.id = :id and ( :version is null or r.version = :version ) ")
+    int patchById(
+            @Param("id") Integer id,
+            @Param("name") String name,
+            @Param("dateOfRegistration") LocalDate dateOfRegistration,
+            @Param("version") Long version
+    );
+
+    @Modifying
+    @Query( value = " delete from Registration as r where r.id = :id ")
+    int bulkDeleteById(@Param("id") Integer id);
 }
@@ -0,0 +1,25 @@
+package com.bootcamp.microservicemeetup.repository;
+
+import com.bootcamp.microservicemeetup.config.ReadFromPrimary;
+import com.bootcamp.microservicemeetup.model.entity.Reservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ReservationRepository extends JpaRepository<Reservation, Integer> {
+
+    @Query( value = " select r.meetupId, count(r) from Reservation as r group by r.meetupId ")
+    List<Object[]> countByMeetup();
+
+    // um meetup por reserva, repetido se for o caso: cada linha é uma vaga a devolver
+    @Query( value = " select r.meetupId from Reservation as r where r.registrationId = :registrationId ")
+    List<Integer> findMeetupIdsByRegistrationId(@Param("registrationId") Integer registrationId);
+
+    // na primária: uma réplica atrasada ainda não veria a reserva recém gravada
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    boolean existsByMeetupIdAndRegistrationId(Integer meetupId, Integer registrationId);
+}
@@ -0,0 +1,14 @@
+package com.bootcamp.microservicemeetup.service;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Mono;
+
+public interface MeetupReactiveService {
+
+    Mono<Meetup> getById(Integer id);
+
+    Mono<Page<Meetup>> find(MeetupFilterDTO filterDTO, Pageable pageable);
+}
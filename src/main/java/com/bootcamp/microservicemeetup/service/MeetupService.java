@@ -1,25 +1,64 @@
 package com.bootcamp.microservicemeetup.service;
 
+import com.bootcamp.microservicemeetup.controller.dto.KeysetCursor;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.MeetupView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface MeetupService {
 
     Meetup save(Meetup meetup);
 
+    List<Meetup> saveAll(List<Meetup> meetups);
+
     Optional<Meetup> getById(Integer id);
 
+    Optional<String> getVersionTag(Integer id);
+
     Meetup update(Meetup loan);
 
     void delete(Meetup meetup);
 
-    Page<Meetup> find(MeetupFilterDTO filterDTO, Pageable pageable);
+    // um UPDATE só, sem carregar o meetup; false quando o id não existe ou a versão não é mais a informada
+    boolean patch(Integer id, String event, LocalDate meetupDate, Long version);
+
+    boolean deleteById(Integer id);
+
+    // contadores mantidos a cada escrita, sem COUNT no banco; um meetup com registration conta uma inscrição
+    long countRegistrationsByEvent(String event);
+
+    long countRegistrationsByMeetupDate(LocalDate meetupDate);
+
+    Map<String, Long> countRegistrationsByEvent();
+
+    Map<LocalDate, Long> countRegistrationsByMeetupDate();
+
+    Page<MeetupView> find(MeetupFilterDTO filterDTO, Pageable pageable);
+
+    Slice<Meetup> findAfter(MeetupFilterDTO filterDTO, KeysetCursor cursor, int size);
+
+    Page<Meetup> findByMeetupDate(LocalDate from, LocalDate to, Pageable pageRequest);
+
+    void export(MeetupFilterDTO filterDTO, Consumer<Meetup> consumer);
 
     Page<Meetup> getRegistrationsByMeetup(Registration registration, Pageable pageable);
 
+    // o DTO do meetup traz a registration junto, então a versão dela também muda a representação
+    static String versionTag(Long version, Long registrationVersion) {
+        return registrationVersion == null ? String.valueOf(version) : version + "." + registrationVersion;
+    }
+
+    static String versionTag(Meetup meetup) {
+        return versionTag(meetup.getVersion(), meetup.getRegistration() == null ? null : meetup.getRegistration().getVersion());
+    }
 }
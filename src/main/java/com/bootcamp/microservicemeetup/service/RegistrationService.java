@@ -1,22 +1,46 @@
 package com.bootcamp.microservicemeetup.service;
 
+import com.bootcamp.microservicemeetup.controller.dto.KeysetCursor;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.RegistrationView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface RegistrationService {
 
     Registration save(Registration any);
 
+    List<Registration> saveAll(List<Registration> registrations);
+
     Optional<Registration> getRegistrationById(Integer id);
 
+    Optional<String> getVersionTag(Integer id);
+
     void delete(Registration registration);
 
+    // um DELETE só, sem carregar a registration; false quando o id não existe
+    boolean deleteById(Integer id);
+
     Registration update(Registration registration);
 
-    Page<Registration> find(Registration filter, Pageable pageRequest);
+    // um UPDATE só, sem carregar a registration; false quando o id não existe ou a versão não é mais a informada
+    boolean patch(Integer id, String name, LocalDate dateOfRegistration, Long version);
+
+    Page<RegistrationView> find(Registration filter, Pageable pageRequest);
+
+    Slice<Registration> findAfter(Registration filter, KeysetCursor cursor, int size);
 
     Optional<Registration> getRegistrationByRegistrationAttribute(String registrationAttribute);
+
+    List<Registration> getRegistrationsByRegistrationAttributes(Collection<String> registrationAttributes);
+
+    static String versionTag(Registration registration) {
+        return String.valueOf(registration.getVersion());
+    }
 }
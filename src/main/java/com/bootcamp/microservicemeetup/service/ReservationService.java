@@ -0,0 +1,12 @@
+package com.bootcamp.microservicemeetup.service;
+
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+
+import java.util.Optional;
+
+public interface ReservationService {
+
+    int UNLIMITED = Integer.MAX_VALUE;
+
+    Optional<Integer> reserve(Integer meetupId, Registration registration);
+}
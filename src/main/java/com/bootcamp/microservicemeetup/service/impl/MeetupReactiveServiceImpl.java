@@ -0,0 +1,42 @@
+package com.bootcamp.microservicemeetup.service.impl;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.repository.MeetupReactiveRepository;
+import com.bootcamp.microservicemeetup.service.MeetupReactiveService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnProperty(name = "meetup.reactive.enabled", havingValue = "true")
+public class MeetupReactiveServiceImpl implements MeetupReactiveService {
+
+    private MeetupReactiveRepository repository;
+
+    public MeetupReactiveServiceImpl(MeetupReactiveRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Mono<Meetup> getById(Integer id) {
+        return repository.findById(id);
+    }
+
+    // mesma semântica do MeetupService.find: sem filtro a página vem vazia, com os dois basta bater um deles
+    @Override
+    public Mono<Page<Meetup>> find(MeetupFilterDTO filterDTO, Pageable pageable) {
+        String event = filterDTO.getEvent();
+        String registration = filterDTO.getRegistration();
+        if (event == null && registration == null) {
+            return Mono.just(Page.empty(pageable));
+        }
+        return repository.find(event, registration, pageable)
+                .collectList()
+                .zipWith(repository.count(event, registration))
+                .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()));
+    }
+}
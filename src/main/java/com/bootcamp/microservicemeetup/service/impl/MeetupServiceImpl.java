@@ -1,64 +1,243 @@
 package com.bootcamp.microservicemeetup.service.impl;
 
+import com.bootcamp.microservicemeetup.config.CacheConfig;
+import com.bootcamp.microservicemeetup.config.ReadFromPrimary;
+import com.bootcamp.microservicemeetup.controller.dto.KeysetCursor;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.MeetupView;
 import com.bootcamp.microservicemeetup.repository.MeetupRepository;
 import com.bootcamp.microservicemeetup.service.MeetupService;
+import org.hibernate.Hibernate;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class MeetupServiceImpl implements MeetupService {
 
+    static final int EXPORT_DETACH_INTERVAL = 500;
 
     private MeetupRepository repository;
 
-    public MeetupServiceImpl(MeetupRepository repository) {
+    private EntityManager entityManager;
+
+    private SeatCounters seatCounters;
+
+    private MeetupStats stats;
+
+    public MeetupServiceImpl(MeetupRepository repository, EntityManager entityManager, SeatCounters seatCounters,
+                             MeetupStats stats) {
         this.repository = repository;
+        this.entityManager = entityManager;
+        this.seatCounters = seatCounters;
+        this.stats = stats;
     }
 
     @Override
+    @Transactional
     public Meetup save(Meetup meetup) {
-        if(meetup.getRegistered()){
+        if(isRegistered(meetup)){
             throw new BusinessException("Meetup already created");
         }
-        return repository.save(meetup);
+        Meetup savedMeetup = repository.save(meetup);
+        seatCounters.register(savedMeetup.getId(), savedMeetup.getCapacity());
+        stats.saved(savedMeetup);
+        return savedMeetup;
+    }
+
+    // meetups já registrados não são gravados e ficam sem id
+    @Override
+    @Transactional
+    public List<Meetup> saveAll(List<Meetup> meetups) {
+        List<Meetup> newMeetups = new ArrayList<>(meetups.size());
+        for (Meetup meetup : meetups) {
+            if (!isRegistered(meetup)) {
+                newMeetups.add(meetup);
+            }
+        }
+        List<Meetup> savedMeetups = repository.saveAll(newMeetups);
+        savedMeetups.forEach(savedMeetup -> {
+            seatCounters.register(savedMeetup.getId(), savedMeetup.getCapacity());
+            stats.saved(savedMeetup);
+        });
+        return savedMeetups;
     }
 
+    // do cache de segundo nível o meetup volta com a registration em proxy; o initialize a resolve ainda na transação,
+    // pelo cache da registration quando ela estiver lá
     @Override
+    @Transactional(readOnly = true)
     public Optional<Meetup> getById(Integer id) {
-        return repository.findById(id);
+        Optional<Meetup> meetup = repository.findById(id);
+        meetup.ifPresent(found -> Hibernate.initialize(found.getRegistration()));
+        return meetup;
+    }
+
+    // o cache é de todas as sessões, então a versão vem da primária: uma réplica atrasada ficaria em cache
+    @Override
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.MEETUP_VERSIONS, unless = "#result == null")
+    public Optional<String> getVersionTag(Integer id) {
+        return repository.findVersionById(id)
+                .map(version -> MeetupService.versionTag(version.getVersion(), version.getRegistrationVersion()));
     }
 
+    // o merge devolve a registration como proxy, e quem chama precisa dela para o DTO e o ETag
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.MEETUP_VERSIONS, key = "#loan.id", condition = "#loan != null && #loan.id != null")
     public Meetup update(Meetup loan) {
         if (loan == null || loan.getId() == null) {
             throw new IllegalArgumentException("Meetup cannot be null");
         }
-        return repository.save(loan);
+        Meetup updatedMeetup = repository.save(loan);
+        Hibernate.initialize(updatedMeetup.getRegistration());
+        stats.saved(updatedMeetup);
+        return updatedMeetup;
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.MEETUP_VERSIONS, key = "#meetup.id", condition = "#meetup != null && #meetup.id != null")
     public void delete(Meetup meetup) {
         if (meetup == null || meetup.getId() == null) {
             throw new IllegalArgumentException("Meetup cannot be null");
         }
         this.repository.delete(meetup);
+        seatCounters.remove(meetup.getId());
+        stats.deleted(meetup.getId());
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.MEETUP_VERSIONS, key = "#id")
+    public boolean patch(Integer id, String event, LocalDate meetupDate, Long version) {
+        if (repository.patchById(id, event, meetupDate, version) == 0) {
+            return false;
+        }
+        stats.patched(id, event, meetupDate);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.MEETUP_VERSIONS, key = "#id")
+    public boolean deleteById(Integer id) {
+        if (repository.bulkDeleteById(id) == 0) {
+            return false;
+        }
+        seatCounters.remove(id);
+        stats.deleted(id);
+        return true;
+    }
+
+    @Override
+    public long countRegistrationsByEvent(String event) {
+        return stats.countByEvent(event);
+    }
+
+    @Override
+    public long countRegistrationsByMeetupDate(LocalDate meetupDate) {
+        return stats.countByMeetupDate(meetupDate);
     }
 
     @Override
-    public Page<Meetup> find(MeetupFilterDTO filterDTO, Pageable pageable) {
-        return repository.findByRegistrationOnMeetup( filterDTO.getRegistration(), filterDTO.getEvent(), pageable );
+    public Map<String, Long> countRegistrationsByEvent() {
+        return stats.countByEvent();
     }
 
     @Override
+    public Map<LocalDate, Long> countRegistrationsByMeetupDate() {
+        return stats.countByMeetupDate();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    // com um filtro só a consulta vai direto pelo índice; o OR entre os dois filtros obriga o H2 a varrer a tabela
+    public Page<MeetupView> find(MeetupFilterDTO filterDTO, Pageable pageable) {
+        String registration = filterDTO.getRegistration();
+        String event = filterDTO.getEvent();
+        if (registration == null && event == null) {
+            return Page.empty(pageable);
+        }
+        if (registration == null) {
+            return repository.findByEventOnMeetup(event, pageable);
+        }
+        if (event == null) {
+            return repository.findByRegistrationCodeOnMeetup(registration, pageable);
+        }
+        return repository.findByRegistrationOnMeetup( registration, event, pageable );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Meetup> findAfter(MeetupFilterDTO filterDTO, KeysetCursor cursor, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        if (cursor.isOrderedByMeetupDate() && cursor.getMeetupDate() == null) {
+            return repository.findByRegistrationOnMeetupWithoutDateAfterId(
+                    filterDTO.getRegistration(), filterDTO.getEvent(), cursor.getId(), pageable);
+        }
+        if (cursor.isOrderedByMeetupDate()) {
+            return repository.findByRegistrationOnMeetupAfterMeetupDate(
+                    filterDTO.getRegistration(), filterDTO.getEvent(), cursor.getMeetupDate(), cursor.getId(), pageable);
+        }
+        return repository.findByRegistrationOnMeetupAfterId(
+                filterDTO.getRegistration(), filterDTO.getEvent(), cursor.getId(), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Meetup> findByMeetupDate(LocalDate from, LocalDate to, Pageable pageRequest) {
+        if (from.isAfter(to)) {
+            throw new BusinessException("Invalid date range");
+        }
+        return repository.findByMeetupDateBetween(from, to, pageRequest);
+    }
+
+    // limpa o contexto de persistência a cada bloco para o heap não crescer com o número de linhas
+    @Override
+    @Transactional(readOnly = true)
+    public void export(MeetupFilterDTO filterDTO, Consumer<Meetup> consumer) {
+        try (Stream<Meetup> meetups = repository.streamByRegistrationOnMeetup(filterDTO.getRegistration(), filterDTO.getEvent())) {
+            Iterator<Meetup> iterator = meetups.iterator();
+            int exported = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                if (++exported % EXPORT_DETACH_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    // só os meetups: a registration é a que veio no parâmetro
+    @Override
+    @Transactional(readOnly = true)
     public Page<Meetup> getRegistrationsByMeetup(Registration registration, Pageable pageable) {
         return repository.findByRegistration(registration, pageable);
     }
 
-}
\ No newline at end of file
+    private boolean isRegistered(Meetup meetup) {
+        return Boolean.TRUE.equals(meetup.getRegistered());
+    }
+
+}
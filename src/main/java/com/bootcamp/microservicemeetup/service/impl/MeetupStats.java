@@ -0,0 +1,208 @@
+package com.bootcamp.microservicemeetup.service.impl;
+
+import com.bootcamp.microservicemeetup.config.ReadFromPrimary;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Registrations por evento e por dia de meetup, em memória, para o GET /api/meetups/stats não precisar de COUNT.
+ * Cada escrita do MeetupService registra na transação a nova chave (evento, dia) do meetup, aplicada só no commit.
+ * O rebuild refaz as contagens a partir do banco no start e periodicamente, e corrige o que não passou pelo
+ * MeetupService desta instância (outras instâncias, SQL direto).
+ */
+@Component
+public class MeetupStats {
+
+    private static final Key REMOVED = new Key(null, null);
+
+    private final MeetupRepository repository;
+
+    // leitura: escritas concorrentes entre si; escrita: só a troca das contagens no fim do rebuild
+    private final ReadWriteLock swap = new ReentrantReadWriteLock();
+
+    private volatile Counters counters = new Counters();
+
+    // escritas aplicadas durante um rebuild, reaplicadas sobre as contagens novas antes da troca
+    private Map<Integer, Key> pending;
+
+    public MeetupStats(MeetupRepository repository) {
+        this.repository = repository;
+    }
+
+    // na primária: contagens de uma réplica atrasada só seriam corrigidas no próximo rebuild
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${meetup.stats.rebuild-interval-ms}", initialDelayString = "${meetup.stats.rebuild-interval-ms}")
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Map<Integer, Key> changes = new ConcurrentHashMap<>();
+        withSwapLock(() -> pending = changes);
+        Counters rebuilt = new Counters();
+        try (Stream<Object[]> rows = repository.streamStatsKeys()) {
+            rows.forEach(row -> rebuilt.change((Integer) row[0], previous -> new Key((String) row[1], (LocalDate) row[2])));
+            withSwapLock(() -> {
+                // a última chave de cada meetup vale mais que a lida no scan, que pode ser anterior a ela
+                changes.forEach((id, key) -> rebuilt.change(id, previous -> key == REMOVED ? null : key));
+                counters = rebuilt;
+            });
+        } finally {
+            withSwapLock(() -> pending = null);
+        }
+    }
+
+    public void saved(Meetup meetup) {
+        if (meetup != null && meetup.getId() != null) {
+            Key key = meetup.getRegistration() == null ? null : new Key(meetup.getEvent(), meetup.getMeetupDate());
+            onCommit(meetup.getId(), previous -> key);
+        }
+    }
+
+    // campos nulos ficam como estão, como no UPDATE do patch
+    public void patched(Integer id, String event, LocalDate meetupDate) {
+        onCommit(id, previous -> previous == null ? null
+                : new Key(event == null ? previous.event : event, meetupDate == null ? previous.meetupDate : meetupDate));
+    }
+
+    public void deleted(Integer id) {
+        onCommit(id, previous -> null);
+    }
+
+    public long countByEvent(String event) {
+        return count(counters.byEvent.get(event));
+    }
+
+    public long countByMeetupDate(LocalDate meetupDate) {
+        return count(counters.byMeetupDate.get(meetupDate));
+    }
+
+    public Map<String, Long> countByEvent() {
+        return snapshot(counters.byEvent);
+    }
+
+    public Map<LocalDate, Long> countByMeetupDate() {
+        return snapshot(counters.byMeetupDate);
+    }
+
+    private void onCommit(Integer id, UnaryOperator<Key> change) {
+        if (id != null) {
+            AfterCommit.run(() -> apply(id, change));
+        }
+    }
+
+    private void apply(Integer id, UnaryOperator<Key> change) {
+        Lock lock = swap.readLock();
+        lock.lock();
+        try {
+            Key key = counters.change(id, change);
+            Map<Integer, Key> changes = pending;
+            if (changes != null) {
+                changes.put(id, key == null ? REMOVED : key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void withSwapLock(Runnable action) {
+        Lock lock = swap.writeLock();
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long count(AtomicLong counter) {
+        return counter == null ? 0 : counter.get();
+    }
+
+    private static <K extends Comparable<K>> Map<K, Long> snapshot(Map<K, AtomicLong> counters) {
+        Map<K, Long> snapshot = new TreeMap<>();
+        counters.forEach((key, counter) -> {
+            long count = counter.get();
+            if (count > 0) {
+                snapshot.put(key, count);
+            }
+        });
+        return snapshot;
+    }
+
+    private static final class Counters {
+
+        private final Map<Integer, Key> keys = new ConcurrentHashMap<>();
+
+        private final Map<String, AtomicLong> byEvent = new ConcurrentHashMap<>();
+
+        private final Map<LocalDate, AtomicLong> byMeetupDate = new ConcurrentHashMap<>();
+
+        // troca a chave do meetup e move uma unidade da chave antiga para a nova, atomicamente por meetup
+        private Key change(Integer id, UnaryOperator<Key> change) {
+            return keys.compute(id, (ignored, previous) -> {
+                Key next = change.apply(previous);
+                if (previous != null) {
+                    add(previous, -1);
+                }
+                if (next != null) {
+                    add(next, 1);
+                }
+                return next;
+            });
+        }
+
+        private void add(Key key, long delta) {
+            if (key.event != null) {
+                byEvent.computeIfAbsent(key.event, event -> new AtomicLong()).addAndGet(delta);
+            }
+            if (key.meetupDate != null) {
+                byMeetupDate.computeIfAbsent(key.meetupDate, meetupDate -> new AtomicLong()).addAndGet(delta);
+            }
+        }
+    }
+
+    private static final class Key {
+
+        private final String event;
+
+        private final LocalDate meetupDate;
+
+        private Key(String event, LocalDate meetupDate) {
+            this.event = event;
+            this.meetupDate = meetupDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(event, other.event) && Objects.equals(meetupDate, other.meetupDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(event, meetupDate);
+        }
+    }
+}
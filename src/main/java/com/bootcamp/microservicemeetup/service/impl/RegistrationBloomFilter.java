@@ -0,0 +1,151 @@
+package com.bootcamp.microservicemeetup.service.impl;
+
+import com.bootcamp.microservicemeetup.config.ReadFromPrimary;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Filtro de Bloom com os códigos de registration já gravados. Um "não" é definitivo e evita o
+ * existsByRegistration; um "talvez" ainda precisa ser confirmado no banco. Códigos removidos não
+ * podem ser apagados do filtro e continuam aparecendo como "talvez" até o próximo start.
+ */
+@Component
+public class RegistrationBloomFilter {
+
+    private final RegistrationRepository repository;
+
+    private final AtomicLongArray words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private final AtomicLong insertions = new AtomicLong();
+
+    private final AtomicLong staleEntries = new AtomicLong();
+
+    private final Counter queriesSaved;
+
+    private final Counter possibleHits;
+
+    private final Counter falsePositives;
+
+    private volatile boolean ready;
+
+    public RegistrationBloomFilter(RegistrationRepository repository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${meetup.registration.bloom.expected-insertions}") long expectedInsertions,
+                                   @Value("${meetup.registration.bloom.false-positive-probability}") double falsePositiveProbability) {
+        this.repository = repository;
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+
+        this.queriesSaved = meterRegistry.counter("registration.bloom.queries.saved");
+        this.possibleHits = meterRegistry.counter("registration.bloom.possible.hits");
+        this.falsePositives = meterRegistry.counter("registration.bloom.false.positives");
+        Gauge.builder("registration.bloom.false.positive.rate", this, RegistrationBloomFilter::observedFalsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("registration.bloom.expected.false.positive.rate", this, RegistrationBloomFilter::expectedFalsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("registration.bloom.stale.entries", staleEntries, AtomicLong::doubleValue)
+                .register(meterRegistry);
+    }
+
+    // na primária: um código faltando viraria um "não" definitivo para um duplicado
+    @EventListener(ApplicationReadyEvent.class)
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<String> codes = repository.streamAllRegistrations()) {
+            codes.forEach(this::put);
+        }
+        ready = true;
+    }
+
+    public boolean mightContain(String registration) {
+        if (!ready || registration == null) {
+            return true;
+        }
+        long hash = hash(registration);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                queriesSaved.increment();
+                return false;
+            }
+        }
+        possibleHits.increment();
+        return true;
+    }
+
+    public void recordVerification(boolean exists) {
+        if (!exists) {
+            falsePositives.increment();
+        }
+    }
+
+    public void put(String registration) {
+        if (registration == null) {
+            return;
+        }
+        long hash = hash(registration);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash, i);
+            long mask = 1L << bit;
+            words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+        insertions.incrementAndGet();
+    }
+
+    public void remove(String registration) {
+        if (registration != null) {
+            recordRemoval();
+        }
+    }
+
+    // o filtro não apaga bits, então para ele só importa quantos códigos deixaram de existir
+    public void recordRemoval() {
+        staleEntries.incrementAndGet();
+    }
+
+    private long index(long hash, int i) {
+        long combined = (int) hash + (long) i * (int) (hash >>> 32);
+        return Math.floorMod(combined, bitCount);
+    }
+
+    private double observedFalsePositiveRate() {
+        double hits = possibleHits.count();
+        return hits == 0 ? 0 : falsePositives.count() / hits;
+    }
+
+    private double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashCount * (double) insertions.get() / bitCount), hashCount);
+    }
+
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53ae63bL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,284 @@
+package com.bootcamp.microservicemeetup.service.impl;
+
+import com.bootcamp.microservicemeetup.config.ReadFromPrimary;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido de trigramas sobre name e registration para a busca por trecho do GET /api/registration.
+ * Os trigramas só escolhem os candidatos; cada candidato ainda é conferido com contains, com a mesma
+ * semântica do ExampleMatcher (CONTAINING, ignore case). O banco só é consultado para a página final de ids.
+ * As escritas do RegistrationService entram no índice no commit; o rebuild refaz o índice a partir do banco no
+ * start e periodicamente, e traz o que não passou por esta instância (outras instâncias, SQL direto).
+ */
+@Component
+public class RegistrationSearchIndex {
+
+    static final int GRAM = 3;
+
+    private static final Document REMOVED = new Document(null, null, null, null);
+
+    private final RegistrationRepository repository;
+
+    // leitura: escritas concorrentes entre si; escrita: só a troca do índice no fim do rebuild
+    private final ReadWriteLock swap = new ReentrantReadWriteLock();
+
+    private volatile Index index = new Index();
+
+    // escritas aplicadas durante um rebuild, reaplicadas sobre o índice novo antes da troca
+    private Map<Integer, Document> pending;
+
+    private volatile boolean ready;
+
+    public RegistrationSearchIndex(RegistrationRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        Gauge.builder("registration.search.index.documents", this, search -> search.index.documents.size())
+                .register(meterRegistry);
+        Gauge.builder("registration.search.index.grams", this,
+                        search -> search.index.nameGrams.size() + search.index.registrationGrams.size())
+                .register(meterRegistry);
+    }
+
+    // na primária: uma registration faltando ficaria fora da busca até o próximo rebuild
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${meetup.registration.search.rebuild-interval-ms}",
+            initialDelayString = "${meetup.registration.search.rebuild-interval-ms}")
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public void load() {
+        Map<Integer, Document> changes = new ConcurrentHashMap<>();
+        withSwapLock(() -> pending = changes);
+        Index rebuilt = new Index();
+        try (Stream<Object[]> rows = repository.streamSearchableFields()) {
+            rows.forEach(row -> rebuilt.put(new Document((Integer) row[0], (String) row[1], (LocalDate) row[2], (String) row[3])));
+            withSwapLock(() -> {
+                // a última versão de cada registration vale mais que a lida no scan, que pode ser anterior a ela
+                changes.forEach((id, document) -> rebuilt.change(id, previous -> document == REMOVED ? null : document));
+                index = rebuilt;
+            });
+        } finally {
+            withSwapLock(() -> pending = null);
+        }
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Registration registration) {
+        if (registration != null && registration.getId() != null) {
+            Document document = new Document(registration.getId(), registration.getName(),
+                    registration.getDateOfRegistration(), registration.getRegistration());
+            onCommit(document.id, previous -> document);
+        }
+    }
+
+    // campos nulos ficam como estão, como no UPDATE do patch; o código vem do documento já indexado
+    public void patch(Integer id, String name, LocalDate dateOfRegistration) {
+        onCommit(id, previous -> previous == null ? null
+                : new Document(id, name == null ? previous.name : name,
+                        dateOfRegistration == null ? previous.dateOfRegistration : dateOfRegistration,
+                        previous.registration));
+    }
+
+    public void remove(Registration registration) {
+        if (registration != null) {
+            remove(registration.getId());
+        }
+    }
+
+    public void remove(Integer id) {
+        onCommit(id, previous -> null);
+    }
+
+    // ids em ordem crescente de todas as registrations que batem com o filtro
+    public List<Integer> search(Registration filter) {
+        Index current = index;
+        String name = lower(filter.getName());
+        String registration = lower(filter.getRegistration());
+
+        Set<Integer> candidates = smallest(null, current.nameGrams, name);
+        candidates = smallest(candidates, current.registrationGrams, registration);
+        Iterable<Integer> ids = candidates == null ? current.documents.keySet() : candidates;
+
+        List<Integer> matches = new ArrayList<>();
+        for (Integer id : ids) {
+            Document document = current.documents.get(id);
+            if (document != null && document.matches(filter.getId(), name, filter.getDateOfRegistration(), registration)) {
+                matches.add(id);
+            }
+        }
+        Collections.sort(matches);
+        return matches;
+    }
+
+    private void onCommit(Integer id, UnaryOperator<Document> change) {
+        if (id != null) {
+            AfterCommit.run(() -> apply(id, change));
+        }
+    }
+
+    private void apply(Integer id, UnaryOperator<Document> change) {
+        Lock lock = swap.readLock();
+        lock.lock();
+        try {
+            Document document = index.change(id, change);
+            Map<Integer, Document> changes = pending;
+            if (changes != null) {
+                changes.put(id, document == null ? REMOVED : document);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void withSwapLock(Runnable action) {
+        Lock lock = swap.writeLock();
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Set<Integer> smallest(Set<Integer> current, Map<String, Set<Integer>> postings, String query) {
+        if (query == null) {
+            return current;
+        }
+        for (String gram : grams(query)) {
+            Set<Integer> posting = postings.getOrDefault(gram, Collections.emptySet());
+            if (current == null || posting.size() < current.size()) {
+                current = posting;
+            }
+        }
+        return current;
+    }
+
+    private static void index(Map<String, Set<Integer>> postings, Integer id, Set<String> grams) {
+        for (String gram : grams) {
+            // add dentro do compute para não disputar com o unindex que descarta listas vazias
+            postings.compute(gram, (key, ids) -> {
+                Set<Integer> posting = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                posting.add(id);
+                return posting;
+            });
+        }
+    }
+
+    private static void unindex(Map<String, Set<Integer>> postings, Integer id, Set<String> grams) {
+        for (String gram : grams) {
+            postings.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        if (value != null) {
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                grams.add(value.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Index {
+
+        private final Map<Integer, Document> documents = new ConcurrentHashMap<>();
+
+        private final Map<String, Set<Integer>> nameGrams = new ConcurrentHashMap<>();
+
+        private final Map<String, Set<Integer>> registrationGrams = new ConcurrentHashMap<>();
+
+        private Document change(Integer id, UnaryOperator<Document> change) {
+            Document document = change.apply(documents.get(id));
+            if (document == null) {
+                remove(id);
+            } else {
+                put(document);
+            }
+            return document;
+        }
+
+        private void put(Document document) {
+            Integer id = document.id;
+            Document previous = documents.put(id, document);
+
+            Set<String> newNameGrams = grams(document.name);
+            Set<String> newRegistrationGrams = grams(document.registration);
+            index(nameGrams, id, newNameGrams);
+            index(registrationGrams, id, newRegistrationGrams);
+            if (previous != null) {
+                Set<String> staleNameGrams = grams(previous.name);
+                staleNameGrams.removeAll(newNameGrams);
+                unindex(nameGrams, id, staleNameGrams);
+                Set<String> staleRegistrationGrams = grams(previous.registration);
+                staleRegistrationGrams.removeAll(newRegistrationGrams);
+                unindex(registrationGrams, id, staleRegistrationGrams);
+            }
+        }
+
+        private void remove(Integer id) {
+            Document previous = documents.remove(id);
+            if (previous != null) {
+                unindex(nameGrams, previous.id, grams(previous.name));
+                unindex(registrationGrams, previous.id, grams(previous.registration));
+            }
+        }
+    }
+
+    private static final class Document {
+
+        private final Integer id;
+
+        private final String name;
+
+        private final LocalDate dateOfRegistration;
+
+        private final String registration;
+
+        private Document(Integer id, String name, LocalDate dateOfRegistration, String registration) {
+            this.id = id;
+            this.name = lower(name);
+            this.dateOfRegistration = dateOfRegistration;
+            this.registration = lower(registration);
+        }
+
+        private boolean matches(Integer id, String name, LocalDate dateOfRegistration, String registration) {
+            return (id == null || id.equals(this.id))
+                    && (name == null || (this.name != null && this.name.contains(name)))
+                    && (dateOfRegistration == null || dateOfRegistration.equals(this.dateOfRegistration))
+                    && (registration == null || (this.registration != null && this.registration.contains(registration)));
+        }
+    }
+}
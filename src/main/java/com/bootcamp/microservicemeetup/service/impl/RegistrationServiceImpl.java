@@ -1,67 +1,259 @@
 package com.bootcamp.microservicemeetup.service.impl;
 
+import com.bootcamp.microservicemeetup.config.CacheConfig;
+import com.bootcamp.microservicemeetup.config.ReadFromPrimary;
+import com.bootcamp.microservicemeetup.controller.dto.KeysetCursor;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.RegistrationView;
 import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.repository.ReservationRepository;
 import com.bootcamp.microservicemeetup.service.RegistrationService;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class RegistrationServiceImpl implements RegistrationService {
 
     RegistrationRepository repository;
 
-    public RegistrationServiceImpl(RegistrationRepository repository) {
+    RegistrationBloomFilter bloomFilter;
+
+    RegistrationSearchIndex searchIndex;
+
+    ReservationRepository reservationRepository;
+
+    SeatCounters seatCounters;
+
+    public RegistrationServiceImpl(RegistrationRepository repository, RegistrationBloomFilter bloomFilter,
+                                   RegistrationSearchIndex searchIndex, ReservationRepository reservationRepository,
+                                   SeatCounters seatCounters) {
         this.repository = repository;
+        this.bloomFilter = bloomFilter;
+        this.searchIndex = searchIndex;
+        this.reservationRepository = reservationRepository;
+        this.seatCounters = seatCounters;
     }
 
+    // o existsByRegistration precisa ver as escritas mais recentes, então a checagem roda na primária junto com o insert
+    @Transactional
     public Registration save(Registration registration) {
-        if (repository.existsByRegistration(registration.getRegistration())) {
+        if (bloomFilter.mightContain(registration.getRegistration())) {
+            boolean exists = repository.existsByRegistration(registration.getRegistration());
+            bloomFilter.recordVerification(exists);
+            if (exists) {
+                throw new BusinessException("Registration already created");
+            }
+        }
+
+        // o filtro pode não conhecer uma registration gravada por outra instância ou por um save concorrente;
+        // quem decide é o índice único, e o flush faz a violação aparecer aqui e não no commit
+        Registration savedRegistration;
+        try {
+            savedRegistration = repository.save(registration);
+            repository.flush();
+        } catch (DataIntegrityViolationException e) {
+            bloomFilter.put(registration.getRegistration());
             throw new BusinessException("Registration already created");
         }
+        bloomFilter.put(savedRegistration.getRegistration());
+        searchIndex.put(savedRegistration);
+        return savedRegistration;
+    }
 
-        return repository.save(registration);
+    // registrations que já existem (no banco ou repetidas na lista) ficam sem id
+    @Override
+    @Transactional
+    public List<Registration> saveAll(List<Registration> registrations) {
+        Set<String> registrationAttributes = registrations.stream()
+                .map(Registration::getRegistration)
+                .collect(Collectors.toSet());
+        Set<String> knownRegistrations = new HashSet<>(repository.findExistingRegistrations(registrationAttributes));
+
+        List<Registration> newRegistrations = new ArrayList<>(registrations.size());
+        for (Registration registration : registrations) {
+            if (knownRegistrations.add(registration.getRegistration())) {
+                newRegistrations.add(registration);
+            }
+        }
+
+        List<Registration> savedRegistrations = repository.saveAll(newRegistrations);
+        savedRegistrations.forEach(registration -> {
+            bloomFilter.put(registration.getRegistration());
+            searchIndex.put(registration);
+        });
+        return savedRegistrations;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Registration> getRegistrationById(Integer id) {
         return this.repository.findById(id);
     }
 
+    // lida na primária como a do meetup, já que a versão em cache vale para qualquer sessão
     @Override
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.REGISTRATION_VERSIONS, unless = "#result == null")
+    public Optional<String> getVersionTag(Integer id) {
+        return repository.findVersionById(id).map(String::valueOf);
+    }
+
+    // a versão de todo meetup inclui a da registration dele, e descobrir quais são custaria uma consulta
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.REGISTRATIONS_BY_CODE, key = "#registration.registration",
+                    condition = "#registration != null && #registration.registration != null"),
+            @CacheEvict(cacheNames = CacheConfig.REGISTRATION_VERSIONS, key = "#registration.id",
+                    condition = "#registration != null && #registration.id != null"),
+            @CacheEvict(cacheNames = CacheConfig.MEETUP_VERSIONS, allEntries = true)
+    })
     public void delete(Registration registration) {
         if (registration == null || registration.getId() == null) {
             throw new IllegalArgumentException("Registration id cannot be null");
         }
+        releaseSeats(registration.getId());
         this.repository.delete(registration);
+        AfterCommit.run(() -> bloomFilter.remove(registration.getRegistration()));
+        searchIndex.remove(registration);
     }
 
+    // o registration pode ter mudado no update, então a chave antiga não é conhecida aqui.
+    // O filtro de Bloom recebe o código antes do commit: um "talvez" a mais só custa uma consulta
     @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.REGISTRATIONS_BY_CODE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.REGISTRATION_VERSIONS, key = "#registration.id",
+                    condition = "#registration != null && #registration.id != null"),
+            @CacheEvict(cacheNames = CacheConfig.MEETUP_VERSIONS, allEntries = true)
+    })
     public Registration update(Registration registration) {
         if (registration == null || registration.getId() == null) {
             throw new IllegalArgumentException("Registration id cannot be null");
         }
-        return this.repository.save(registration);
+        Registration updatedRegistration = this.repository.save(registration);
+        bloomFilter.put(updatedRegistration.getRegistration());
+        searchIndex.put(updatedRegistration);
+        return updatedRegistration;
     }
 
+    // o código da registration não é lido, então a entrada em cache por código sai junto com as outras
     @Override
-    public Page<Registration> find(Registration filter, Pageable pageRequest) {
-        Example<Registration> example = Example.of(filter,
-                ExampleMatcher
-                .matching()
-                .withIgnoreCase()
-                .withIgnoreNullValues()
-                .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
-
-        return repository.findAll(example, pageRequest);
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.REGISTRATIONS_BY_CODE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.REGISTRATION_VERSIONS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.MEETUP_VERSIONS, allEntries = true)
+    })
+    public boolean deleteById(Integer id) {
+        List<Integer> reservedMeetups = reservationRepository.findMeetupIdsByRegistrationId(id);
+        if (repository.bulkDeleteById(id) == 0) {
+            return false;
+        }
+        releaseSeats(reservedMeetups);
+        AfterCommit.run(bloomFilter::recordRemoval);
+        searchIndex.remove(id);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.REGISTRATIONS_BY_CODE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.REGISTRATION_VERSIONS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.MEETUP_VERSIONS, allEntries = true)
+    })
+    public boolean patch(Integer id, String name, LocalDate dateOfRegistration, Long version) {
+        if (repository.patchById(id, name, dateOfRegistration, version) == 0) {
+            return false;
+        }
+        searchIndex.patch(id, name, dateOfRegistration);
+        return true;
     }
 
+    // com o índice carregado e sem ordenação pedida, o banco só busca os ids da página
     @Override
+    @Transactional(readOnly = true)
+    public Page<RegistrationView> find(Registration filter, Pageable pageRequest) {
+        if (searchIndex.isReady() && pageRequest.isPaged() && pageRequest.getSort().isUnsorted()) {
+            List<Integer> ids = searchIndex.search(filter);
+            int from = (int) Math.min(pageRequest.getOffset(), ids.size());
+            int to = Math.min(from + pageRequest.getPageSize(), ids.size());
+            List<Integer> pageIds = ids.subList(from, to);
+            if (pageIds.isEmpty()) {
+                return new PageImpl<>(Collections.emptyList(), pageRequest, ids.size());
+            }
+            Map<Integer, RegistrationView> registrations = repository.findViewsByIdIn(pageIds).stream()
+                    .collect(Collectors.toMap(RegistrationView::getId, Function.identity()));
+            List<RegistrationView> content = pageIds.stream()
+                    .map(registrations::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            return new PageImpl<>(content, pageRequest, ids.size());
+        }
+
+        return repository.findViewsByFilter(filter.getName(), filter.getDateOfRegistration(),
+                filter.getRegistration(), pageRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Registration> findAfter(Registration filter, KeysetCursor cursor, int size) {
+        if (cursor.isOrderedByMeetupDate()) {
+            throw new BusinessException("Invalid cursor order");
+        }
+        return repository.findByFilterAfterId(filter.getName(), filter.getDateOfRegistration(),
+                filter.getRegistration(), cursor.getId(), PageRequest.of(0, size));
+    }
+
+    // em cache para todas as sessões, então vem da primária como as versões
+    @Override
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.REGISTRATIONS_BY_CODE, unless = "#result == null")
     public Optional<Registration> getRegistrationByRegistrationAttribute(String registrationAttribute) {
         return repository.findByRegistration(registrationAttribute);
     }
 
+    @Override
+    public List<Registration> getRegistrationsByRegistrationAttributes(Collection<String> registrationAttributes) {
+        if (registrationAttributes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return repository.findByRegistrationIn(registrationAttributes);
+    }
+
+
+    // o on delete cascade da V2 apaga as reservas junto com a registration, mas as vagas só voltam
+    // para os contadores em memória se o delete for confirmado
+    private void releaseSeats(Integer registrationId) {
+        releaseSeats(reservationRepository.findMeetupIdsByRegistrationId(registrationId));
+    }
+
+    private void releaseSeats(List<Integer> reservedMeetups) {
+        if (!reservedMeetups.isEmpty()) {
+            AfterCommit.run(() -> reservedMeetups.forEach(seatCounters::release));
+        }
+    }
 }
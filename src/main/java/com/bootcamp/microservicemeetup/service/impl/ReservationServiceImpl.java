@@ -0,0 +1,73 @@
+package com.bootcamp.microservicemeetup.service.impl;
+
+import com.bootcamp.microservicemeetup.exception.BusinessException;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.entity.Reservation;
+import com.bootcamp.microservicemeetup.repository.ReservationRepository;
+import com.bootcamp.microservicemeetup.service.ReservationService;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Service
+public class ReservationServiceImpl implements ReservationService {
+
+    private SeatCounters seatCounters;
+
+    private ReservationWriteBehind writeBehind;
+
+    private ReservationRepository repository;
+
+    public ReservationServiceImpl(SeatCounters seatCounters, ReservationWriteBehind writeBehind,
+                                  ReservationRepository repository) {
+        this.seatCounters = seatCounters;
+        this.writeBehind = writeBehind;
+        this.repository = repository;
+    }
+
+    @Override
+    public Optional<Integer> reserve(Integer meetupId, Registration registration) {
+        if (registration == null || registration.getId() == null) {
+            throw new IllegalArgumentException("Registration id cannot be null");
+        }
+        if (!seatCounters.isReady()) {
+            throw new BusinessException("Reservations are not available yet");
+        }
+
+        Integer registrationId = registration.getId();
+        if (!seatCounters.isKnown(meetupId)) {
+            return Optional.empty();
+        }
+        // o claim barra a mesma inscrição ainda na fila; o banco, a que já foi gravada
+        if (!writeBehind.claim(meetupId, registrationId)) {
+            throw new BusinessException("Registration already has a seat on this meetup");
+        }
+        boolean enqueued = false;
+        try {
+            if (repository.existsByMeetupIdAndRegistrationId(meetupId, registrationId)) {
+                throw new BusinessException("Registration already has a seat on this meetup");
+            }
+
+            int remaining = seatCounters.tryReserve(meetupId);
+            if (remaining == SeatCounters.UNKNOWN) {
+                return Optional.empty();
+            }
+            if (remaining == SeatCounters.FULL) {
+                throw new BusinessException("Meetup is full");
+            }
+
+            writeBehind.enqueue(Reservation.builder()
+                    .meetupId(meetupId)
+                    .registrationId(registrationId)
+                    .reservedAt(LocalDateTime.now())
+                    .build());
+            enqueued = true;
+            return Optional.of(remaining);
+        } finally {
+            if (!enqueued) {
+                writeBehind.unclaim(meetupId, registrationId);
+            }
+        }
+    }
+}
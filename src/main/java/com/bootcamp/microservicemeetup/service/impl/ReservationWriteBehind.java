@@ -0,0 +1,118 @@
+package com.bootcamp.microservicemeetup.service.impl;
+
+import com.bootcamp.microservicemeetup.model.entity.Reservation;
+import com.bootcamp.microservicemeetup.repository.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Fila das reservas já aceitas pelos contadores, gravadas em lote fora da request. Uma reserva aceita fica
+ * só em memória até o próximo flush; se o lote falhar, as linhas são gravadas uma a uma e só as que falharem
+ * de novo devolvem a vaga. Reservas de meetups removidos enquanto estavam na fila são descartadas.
+ */
+@Slf4j
+@Component
+public class ReservationWriteBehind {
+
+    private final ReservationRepository repository;
+
+    private final SeatCounters seatCounters;
+
+    private final int batchSize;
+
+    private final Queue<Reservation> pending = new ConcurrentLinkedQueue<>();
+
+    // pares (meetup, inscrição) aceitos e ainda não gravados, para barrar a mesma inscrição antes do flush
+    private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+
+    public ReservationWriteBehind(ReservationRepository repository,
+                                  SeatCounters seatCounters,
+                                  @Value("${meetup.reservation.batch-size}") int batchSize) {
+        this.repository = repository;
+        this.seatCounters = seatCounters;
+        this.batchSize = batchSize;
+    }
+
+    public boolean claim(Integer meetupId, Integer registrationId) {
+        return claimed.add(key(meetupId, registrationId));
+    }
+
+    public void unclaim(Integer meetupId, Integer registrationId) {
+        claimed.remove(key(meetupId, registrationId));
+    }
+
+    // a reserva já deve ter sido reivindicada com claim; o par é liberado depois de gravado ou descartado
+    public void enqueue(Reservation reservation) {
+        pending.add(reservation);
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${meetup.reservation.flush-interval-ms}")
+    public void flush() {
+        List<Reservation> batch = new ArrayList<>(batchSize);
+        Reservation reservation;
+        while ((reservation = pending.poll()) != null) {
+            batch.add(reservation);
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        write(batch);
+    }
+
+    private void write(List<Reservation> batch) {
+        List<Reservation> alive = new ArrayList<>(batch.size());
+        for (Reservation reservation : batch) {
+            if (seatCounters.isKnown(reservation.getMeetupId())) {
+                alive.add(reservation);
+            } else {
+                log.info("Dropping reservation of registration {} on removed meetup {}",
+                        reservation.getRegistrationId(), reservation.getMeetupId());
+                unclaim(reservation);
+            }
+        }
+        if (alive.isEmpty()) {
+            return;
+        }
+        try {
+            repository.saveAll(alive);
+            alive.forEach(this::unclaim);
+        } catch (RuntimeException e) {
+            log.warn("Could not persist a batch of {} reservations, retrying one by one", alive.size(), e);
+            alive.forEach(this::writeOne);
+        }
+    }
+
+    private void writeOne(Reservation reservation) {
+        try {
+            // o id que o saveAll atribuiu não chegou ao banco
+            reservation.setId(null);
+            repository.save(reservation);
+        } catch (RuntimeException e) {
+            log.error("Could not persist reservation of registration {} on meetup {} made at {}, releasing its seat",
+                    reservation.getRegistrationId(), reservation.getMeetupId(), reservation.getReservedAt(), e);
+            seatCounters.release(reservation.getMeetupId());
+        } finally {
+            unclaim(reservation);
+        }
+    }
+
+    private void unclaim(Reservation reservation) {
+        unclaim(reservation.getMeetupId(), reservation.getRegistrationId());
+    }
+
+    private static Long key(Integer meetupId, Integer registrationId) {
+        return ((long) meetupId << 32) | (registrationId & 0xffffffffL);
+    }
+}
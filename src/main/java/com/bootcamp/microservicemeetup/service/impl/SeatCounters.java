@@ -0,0 +1,119 @@
+package com.bootcamp.microservicemeetup.service.impl;
+
+import com.bootcamp.microservicemeetup.config.ReadFromPrimary;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.ReservationRepository;
+import com.bootcamp.microservicemeetup.service.ReservationService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Vagas restantes por meetup, em memória. A reserva é um compare-and-set no contador do meetup, sem lock
+ * e sem tocar no banco; meetups diferentes não disputam entre si. No start os contadores são refeitos
+ * a partir da capacidade gravada menos as reservas já persistidas.
+ */
+@Component
+public class SeatCounters {
+
+    public static final int UNLIMITED = ReservationService.UNLIMITED;
+
+    public static final int FULL = -1;
+
+    public static final int UNKNOWN = -2;
+
+    private final MeetupRepository meetupRepository;
+
+    private final ReservationRepository reservationRepository;
+
+    private final Map<Integer, AtomicInteger> remaining = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    public SeatCounters(MeetupRepository meetupRepository, ReservationRepository reservationRepository) {
+        this.meetupRepository = meetupRepository;
+        this.reservationRepository = reservationRepository;
+    }
+
+    // na primária: numa réplica atrasada os contadores começariam com vagas a mais
+    @EventListener(ApplicationReadyEvent.class)
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public void load() {
+        Map<Integer, Long> reserved = new HashMap<>();
+        for (Object[] row : reservationRepository.countByMeetup()) {
+            reserved.put((Integer) row[0], (Long) row[1]);
+        }
+        try (Stream<Object[]> rows = meetupRepository.streamCapacities()) {
+            // meetups criados durante a carga já foram registrados pelo save e não são sobrescritos
+            rows.forEach(row -> remaining.putIfAbsent((Integer) row[0],
+                    new AtomicInteger(seats((Integer) row[1], reserved.getOrDefault(row[0], 0L)))));
+        }
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // só depois do commit: um meetup que voltou no rollback não pode aceitar reservas
+    public void register(Integer meetupId, Integer capacity) {
+        if (meetupId != null) {
+            AfterCommit.run(() -> remaining.put(meetupId, new AtomicInteger(seats(capacity, 0))));
+        }
+    }
+
+    // as reservas ainda na fila do write-behind para esse meetup são descartadas no flush
+    public void remove(Integer meetupId) {
+        if (meetupId != null) {
+            AfterCommit.run(() -> remaining.remove(meetupId));
+        }
+    }
+
+    public boolean isKnown(Integer meetupId) {
+        return meetupId != null && remaining.containsKey(meetupId);
+    }
+
+    // devolve as vagas que sobraram depois da reserva, FULL ou UNKNOWN
+    public int tryReserve(Integer meetupId) {
+        AtomicInteger seats = meetupId == null ? null : remaining.get(meetupId);
+        if (seats == null) {
+            return UNKNOWN;
+        }
+        while (true) {
+            int current = seats.get();
+            if (current == UNLIMITED) {
+                return UNLIMITED;
+            }
+            if (current <= 0) {
+                return FULL;
+            }
+            if (seats.compareAndSet(current, current - 1)) {
+                return current - 1;
+            }
+        }
+    }
+
+    public void release(Integer meetupId) {
+        AtomicInteger seats = meetupId == null ? null : remaining.get(meetupId);
+        if (seats != null) {
+            seats.getAndUpdate(current -> current == UNLIMITED ? current : current + 1);
+        }
+    }
+
+    public int remaining(Integer meetupId) {
+        AtomicInteger seats = remaining.get(meetupId);
+        return seats == null ? UNKNOWN : seats.get();
+    }
+
+    private static int seats(Integer capacity, long reserved) {
+        return capacity == null ? UNLIMITED : (int) Math.max(0, capacity - reserved);
+    }
+}
@@ -0,0 +1,30 @@
+create sequence registration_seq start with 1 increment by 50;
+
+create sequence meetup_seq start with 1 increment by 50;
+
+create table registration (
+    registration_id integer not null,
+    person_name varchar(255),
+    date_of_registration date,
+    registration varchar(255),
+    constraint pk_registration primary key (registration_id)
+);
+
+-- existsByRegistration / findByRegistration
+create unique index ux_registration_registration on registration (registration);
+
+create table meetup (
+    id integer not null,
+    event varchar(255),
+    id_registration integer,
+    meetup_date date,
+    registered boolean,
+    constraint pk_meetup primary key (id),
+    constraint fk_meetup_registration foreign key (id_registration) references registration (registration_id)
+);
+
+create index idx_meetup_event on meetup (event);
+
+create index idx_meetup_id_registration on meetup (id_registration);
+
+create index idx_meetup_meetup_date on meetup (meetup_date);
@@ -0,0 +1,18 @@
+-- capacidade nula = sem limite de vagas
+alter table meetup add column capacity integer;
+
+create sequence reservation_seq start with 1 increment by 50;
+
+create table reservation (
+    id integer not null,
+    id_meetup integer not null,
+    id_registration integer not null,
+    reserved_at timestamp not null,
+    constraint pk_reservation primary key (id),
+    constraint fk_reservation_meetup foreign key (id_meetup) references meetup (id) on delete cascade,
+    constraint fk_reservation_registration foreign key (id_registration) references registration (registration_id) on delete cascade
+);
+
+create index idx_reservation_id_meetup on reservation (id_meetup);
+
+create index idx_reservation_id_registration on reservation (id_registration);
@@ -0,0 +1,4 @@
+-- versão para o lock otimista e para os ETags de GET /api/meetups/{id} e GET /api/registration/{id}
+alter table registration add column version bigint default 0 not null;
+
+alter table meetup add column version bigint default 0 not null;
@@ -0,0 +1,9 @@
+-- uma vaga por inscrição em cada meetup; duplicatas antigas ficam só com a primeira reserva
+delete from reservation r
+where exists (select 1 from reservation o
+              where o.id_meetup = r.id_meetup and o.id_registration = r.id_registration and o.id < r.id);
+
+alter table reservation add constraint uk_reservation_meetup_registration unique (id_meetup, id_registration);
+
+-- a unique começa por id_meetup e já atende as buscas por meetup
+drop index idx_reservation_id_meetup;
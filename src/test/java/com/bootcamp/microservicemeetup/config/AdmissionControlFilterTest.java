@@ -0,0 +1,115 @@
+package com.bootcamp.microservicemeetup.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdmissionControlFilterTest {
+
+    @Test
+    @DisplayName("Should refill the token bucket at the configured rate up to its capacity")
+    public void tokenBucketTest() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        TokenBucket bucket = new TokenBucket(2, 3, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(second / 2);
+
+        assertThat(bucket.tryAcquire(second / 2)).isZero();
+        assertThat(bucket.tryAcquire(second / 2)).isEqualTo(second / 2);
+
+        // parado por muito tempo o balde enche só até a capacidade
+        long later = 10 * second;
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(later)).isZero();
+        }
+        assertThat(bucket.tryAcquire(later)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should answer too many requests per client, with separate read and write budgets")
+    public void rateLimitPerClientTest() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(new ClientRateLimiter(0.01, 2, 0.01, 1, 100), 10, 10, true);
+
+        assertThat(perform(filter, "GET", "integration-a").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "GET", "integration-a").getStatus()).isEqualTo(200);
+        MockHttpServletResponse limited = perform(filter, "GET", "integration-a");
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(limited.getHeader("Retry-After"))).isPositive();
+
+        assertThat(perform(filter, "POST", "integration-a").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "POST", "integration-a").getStatus()).isEqualTo(429);
+        assertThat(perform(filter, "GET", "integration-b").getStatus()).isEqualTo(200);
+        // sem o header o cliente é o IP
+        assertThat(perform(filter, "GET", null).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should key clients on the remote address unless the client header is trusted")
+    public void ignoreClientHeaderByDefaultTest() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(new ClientRateLimiter(0.01, 1, 0.01, 1, 100), 10, 10, false);
+
+        assertThat(perform(filter, "GET", "integration-a").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "GET", "integration-b").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    @DisplayName("Should shed reads over the concurrency limit without touching the writes")
+    public void shedConcurrentReadsTest() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(new ClientRateLimiter(1000, 1000, 1000, 1000, 100), 1, 1, false);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> {
+            try {
+                filter.doFilter(request("GET", "integration-a"), new MockHttpServletResponse(), (request, response) -> {
+                    inside.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        holder.start();
+        inside.await();
+
+        MockHttpServletResponse shed = perform(filter, "GET", "integration-b");
+        MockHttpServletResponse write = perform(filter, "POST", "integration-b");
+
+        release.countDown();
+        holder.join();
+
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(write.getStatus()).isEqualTo(200);
+        assertThat(filter.availableReads()).isEqualTo(1);
+        assertThat(filter.availableWrites()).isEqualTo(1);
+    }
+
+    private static MockHttpServletResponse perform(AdmissionControlFilter filter, String method, String client) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, client), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/meetups");
+        if (client != null) {
+            request.addHeader(AdmissionControlFilter.CLIENT_HEADER, client);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bootcamp.microservicemeetup.config;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapperImpl;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapperImpl;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MappingMetricsTest {
+
+    SimpleMeterRegistry meterRegistry;
+
+    MappingMetrics mappingMetrics;
+
+    MeetupMapper mapper = new MeetupMapperImpl(new RegistrationMapperImpl());
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        mappingMetrics = new MappingMetrics(
+                new StaticListableBeanFactory(Collections.singletonMap("meterRegistry", meterRegistry))
+                        .getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    @DisplayName("Should time each mapped page once, whatever its size")
+    public void timeMappedPagesTest() {
+        List<Meetup> meetups = Arrays.asList(
+                Meetup.builder().id(11).event("Womakerscode Dados").meetupDate(LocalDate.of(2021, 10, 10)).build(),
+                Meetup.builder().id(12).build());
+
+        Page<MeetupDTO> page = mappingMetrics.map(MeetupMapper.class,
+                new PageImpl<>(meetups, PageRequest.of(0, 10), 2), mapper::toDto);
+        List<MeetupDTO> slice = mappingMetrics.map(MeetupMapper.class, meetups, mapper::toDto);
+
+        assertThat(page.getContent().get(0).getMeetupDate()).isEqualTo("10/10/2021");
+        assertThat(slice).hasSize(2);
+        Timer timer = meterRegistry.get(MappingMetrics.METRIC_NAME)
+                .tag("mapper", "MeetupMapper")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,156 @@
+package com.bootcamp.microservicemeetup.config;
+
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.RegistrationService;
+import com.jayway.jsonpath.JsonPath;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.servlet.http.Cookie;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// três H2 em memória sem replicação entre eles: uma linha que só existe nas réplicas (ou só na primária)
+// mostra de onde cada leitura veio. Sem o cache de segundo nível, que responderia antes de qualquer um dos bancos
+@SpringBootTest(properties = {
+        "meetup.reactive.enabled=false",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "meetup.datasource.replica.urls=" + ReplicaRoutingTest.REPLICA_ONE_URL + "," + ReplicaRoutingTest.REPLICA_TWO_URL,
+        "meetup.datasource.replica.max-lag=1m"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_ONE_URL = "jdbc:h2:mem:routing-replica-1;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_TWO_URL = "jdbc:h2:mem:routing-replica-2;DB_CLOSE_DELAY=-1";
+    static final String REGISTRATION_API = "/api/registration";
+
+    static final int REPLICA_ONLY_ID = 900;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    RegistrationService registrationService;
+
+    @Autowired
+    RegistrationRepository registrationRepository;
+
+    @BeforeAll
+    public static void setUpReplicas() throws SQLException {
+        seedReplica(REPLICA_ONE_URL, "Replica One");
+        seedReplica(REPLICA_TWO_URL, "Replica Two");
+    }
+
+    @BeforeEach
+    public void setUp() {
+        ReplicaRoutingDataSource.unbindSession();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        registrationRepository.deleteAll();
+        ReplicaRoutingDataSource.unbindSession();
+    }
+
+    @Test
+    @DisplayName("Should send read-only service calls to the replicas in turn")
+    public void readOnlyCallsGoToReplicasTest() {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            names.add(registrationService.getRegistrationById(REPLICA_ONLY_ID).map(Registration::getName).orElse(null));
+        }
+
+        assertThat(names).containsExactlyInAnyOrder("Replica One", "Replica Two");
+    }
+
+    @Test
+    @DisplayName("Should read from the primary right after the session wrote")
+    public void readYourWritesTest() {
+        Registration saved = registrationService.save(Registration.builder()
+                .name("Ana Neri")
+                .dateOfRegistration(LocalDate.of(2022, 4, 1))
+                .registration("routing-001")
+                .build());
+
+        assertThat(registrationService.getRegistrationById(saved.getId())).isPresent();
+        assertThat(registrationService.getRegistrationById(REPLICA_ONLY_ID)).isEmpty();
+
+        ReplicaRoutingDataSource.unbindSession();
+        assertThat(registrationService.getRegistrationById(saved.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should read from the primary without marking the session as a writer")
+    public void readFromPrimaryWithoutWriteTest() {
+        AtomicBoolean wrote = new AtomicBoolean();
+        ReplicaRoutingDataSource.bindSession(null, writtenAt -> wrote.set(true));
+
+        assertThat(registrationService.getVersionTag(REPLICA_ONLY_ID)).isEmpty();
+        assertThat(registrationService.getRegistrationById(REPLICA_ONLY_ID)).isPresent();
+        assertThat(wrote).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should carry the last write of a client between requests in a cookie")
+    public void readYourWritesAcrossRequestsTest() throws Exception {
+        String json = "{\"name\": \"Ana Neri\", \"dateOfRegistration\": \"01/04/2022\", \"registration\": \"routing-002\"}";
+
+        MockHttpServletResponse created = mockMvc.perform(MockMvcRequestBuilders.post(REGISTRATION_API)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWritesFilter.LAST_WRITE_COOKIE))
+                .andReturn()
+                .getResponse();
+        Integer id = JsonPath.read(created.getContentAsString(), "$.id");
+        Cookie lastWrite = created.getCookie(ReadYourWritesFilter.LAST_WRITE_COOKIE);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(REGISTRATION_API + "/" + id).cookie(lastWrite))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(REGISTRATION_API + "/" + id))
+                .andExpect(status().isNotFound());
+    }
+
+    // cada réplica recebe o schema e uma linha que a primária não tem, com um nome diferente em cada uma
+    private static void seedReplica(String url, String name) throws SQLException {
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement statement = connection.prepareStatement("insert into registration " +
+                     "(registration_id, person_name, date_of_registration, registration) values (?, ?, ?, ?)")) {
+            statement.setInt(1, REPLICA_ONLY_ID);
+            statement.setString(2, name);
+            statement.setObject(3, LocalDate.of(2021, 10, 10));
+            statement.setString(4, "replica-" + REPLICA_ONLY_ID);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.bootcamp.microservicemeetup.config;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// conta os statements da thread do teste; com MockMvc a request roda nessa mesma thread
+public final class StatementCountAssertions {
+
+    private StatementCountAssertions() {
+    }
+
+    public static void reset() {
+        QueryCountHolder.clear();
+    }
+
+    public static void assertSelectCount(long expected) {
+        assertThat(count().getSelect()).as("selects in %s", describe()).isEqualTo(expected);
+    }
+
+    public static void assertInsertCount(long expected) {
+        assertThat(count().getInsert()).as("inserts in %s", describe()).isEqualTo(expected);
+    }
+
+    public static void assertUpdateCount(long expected) {
+        assertThat(count().getUpdate()).as("updates in %s", describe()).isEqualTo(expected);
+    }
+
+    public static void assertDeleteCount(long expected) {
+        assertThat(count().getDelete()).as("deletes in %s", describe()).isEqualTo(expected);
+    }
+
+    public static void assertStatementCount(long expected) {
+        assertThat(count().getTotal()).as("statements in %s", describe()).isEqualTo(expected);
+    }
+
+    private static QueryCount count() {
+        return QueryCountHolder.get(DataSourceProxyConfig.DATA_SOURCE_NAME);
+    }
+
+    private static String describe() {
+        QueryCount count = count();
+        return String.format("%d selects, %d inserts, %d updates, %d deletes, %d other",
+                count.getSelect(), count.getInsert(), count.getUpdate(), count.getDelete(), count.getOther());
+    }
+}
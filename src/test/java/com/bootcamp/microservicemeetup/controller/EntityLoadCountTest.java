@@ -0,0 +1,154 @@
+package com.bootcamp.microservicemeetup.controller;
+
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import org.hamcrest.Matchers;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// cada endpoint carrega só o grafo que devolve: as contagens são de entidades lidas do banco, com o cache frio
+@SpringBootTest(properties = "meetup.reactive.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class EntityLoadCountTest {
+
+    static final String MEETUP_API = "/api/meetups";
+    static final String REGISTRATION_API = "/api/registration";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Autowired
+    RegistrationRepository registrationRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    List<Meetup> meetups;
+
+    @BeforeEach
+    public void setUp() {
+        meetups = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Registration registration = registrationRepository.save(Registration.builder()
+                    .name("Person " + i)
+                    .dateOfRegistration(LocalDate.of(2021, 10, 10))
+                    .registration(String.format("%03d", i))
+                    .build());
+            meetups.add(meetupRepository.save(Meetup.builder()
+                    .event("Womakerscode Dados")
+                    .registration(registration)
+                    .meetupDate(LocalDate.of(2022, 6, 6))
+                    .registered(false)
+                    .build()));
+        }
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        meetupRepository.deleteAll();
+        registrationRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should load a meetup with its registration and nothing else")
+    public void findMeetupByIdLoadCountTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(MEETUP_API + "/" + meetups.get(0).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("registration.registration").value("000"));
+
+        assertLoaded(1, 1);
+    }
+
+    @Test
+    @DisplayName("Should load a registration without its meetups")
+    public void findRegistrationByIdLoadCountTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(REGISTRATION_API + "/" + meetups.get(0).getRegistration().getId()))
+                .andExpect(status().isOk());
+
+        assertLoaded(0, 1);
+    }
+
+    @Test
+    @DisplayName("Should list meetups and registrations without loading entities")
+    public void listPagesLoadCountTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(MEETUP_API + "?event=Womakerscode Dados&page=0&size=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(5)));
+        // com ordenação a página sai da consulta, não do índice de busca (que não viu os saves direto no repository)
+        mockMvc.perform(MockMvcRequestBuilders.get(REGISTRATION_API + "?name=Person&page=0&size=10&sort=name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(5)));
+
+        assertLoaded(0, 0);
+    }
+
+    @Test
+    @DisplayName("Should load each meetup of a date range page with its registration")
+    public void findMeetupsByDateLoadCountTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(MEETUP_API + "?from=2022-06-01&to=2022-06-30&page=0&size=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content[4].registration.registration").exists());
+
+        assertLoaded(5, 5);
+    }
+
+    @Test
+    @DisplayName("Should load each meetup of a cursor page with its registration")
+    public void findMeetupsByCursorLoadCountTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(MEETUP_API + "?event=Womakerscode Dados&cursor=&size=3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content[2].registration.registration").exists());
+
+        // o keyset busca uma linha a mais para saber se existe próxima página
+        assertLoaded(4, 4);
+    }
+
+    @Test
+    @DisplayName("Should delete a meetup without loading it")
+    public void deleteMeetupLoadCountTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete(MEETUP_API + "/" + meetups.get(0).getId()))
+                .andExpect(status().isNoContent());
+
+        assertLoaded(0, 0);
+    }
+
+    private void assertLoaded(long meetupLoads, long registrationLoads) {
+        assertThat(statistics.getEntityStatistics(Meetup.class.getName()).getLoadCount())
+                .as("meetups loaded").isEqualTo(meetupLoads);
+        assertThat(statistics.getEntityStatistics(Registration.class.getName()).getLoadCount())
+                .as("registrations loaded").isEqualTo(registrationLoads);
+        assertThat(statistics.getEntityFetchCount()).as("lazy fetches").isZero();
+        assertThat(statistics.getCollectionLoadCount()).as("collections loaded").isZero();
+    }
+}
@@ -1,15 +1,22 @@
 package com.bootcamp.microservicemeetup.controller;
 
 
+import com.bootcamp.microservicemeetup.config.MappingMetrics;
+import com.bootcamp.microservicemeetup.controller.dto.KeysetCursor;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
 import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.dto.ReservationDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapperImpl;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapperImpl;
 import com.bootcamp.microservicemeetup.controller.resource.MeetupController;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.MeetupView;
 import com.bootcamp.microservicemeetup.service.MeetupService;
 import com.bootcamp.microservicemeetup.service.RegistrationService;
+import com.bootcamp.microservicemeetup.service.ReservationService;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,27 +27,39 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 @WebMvcTest(controllers = {MeetupController.class})
 @AutoConfigureMockMvc
+@Import({MeetupMapperImpl.class, RegistrationMapperImpl.class, MappingMetrics.class})
 public class MeetupControllerTest {
 
     static final String MEETUP_API = "/api/meetups";
@@ -54,6 +73,9 @@ public class MeetupControllerTest {
     @MockBean
     private MeetupService meetupService;
 
+    @MockBean
+    private ReservationService reservationService;
+
     @Test
     @DisplayName("Should register on a meetup")
     public void createMeetupTest() throws Exception {
@@ -66,7 +88,7 @@ public class MeetupControllerTest {
         BDDMockito.given(registrationService.getRegistrationByRegistrationAttribute("123")).
                 willReturn(Optional.of(registration));
 
-        Meetup meetup = Meetup.builder().id(11).event("Womakerscode Dados").registration(registration).meetupDate("10/10/2021").build();
+        Meetup meetup = Meetup.builder().id(11).event("Womakerscode Dados").registration(registration).meetupDate(LocalDate.of(2021, 10, 10)).build();
 
         BDDMockito.given(meetupService.save(Mockito.any(Meetup.class))).willReturn(meetup);
 
@@ -124,14 +146,48 @@ public class MeetupControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Should register many meetups resolving the registrations at once")
+    public void createMeetupBatchTest() throws Exception {
+        List<MeetupDTO> dtos = Arrays.asList(
+                MeetupDTO.builder().registrationAttribute("123").event("Womakerscode Dados").build(),
+                MeetupDTO.builder().registrationAttribute("999").event("Womakerscode Dados").build(),
+                MeetupDTO.builder().registrationAttribute("123").event("Womakerscode Java").build());
+        String json = new ObjectMapper().writeValueAsString(dtos);
+
+        Registration registration = Registration.builder().id(11).registration("123").build();
+        BDDMockito.given(registrationService.getRegistrationsByRegistrationAttributes(Mockito.anyCollection()))
+                .willReturn(Arrays.asList(registration));
+        BDDMockito.given(meetupService.saveAll(Mockito.anyList())).willAnswer(invocation -> {
+            List<Meetup> meetups = invocation.getArgument(0);
+            meetups.forEach(meetup -> meetup.setId(11));
+            return meetups;
+        });
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(MEETUP_API.concat("/batch"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("processed").value(3))
+                .andExpect(jsonPath("created").value(2))
+                .andExpect(jsonPath("rejected").value(1))
+                .andExpect(jsonPath("errors[0].position").value(2))
+                .andExpect(jsonPath("errors[0].message").value("Registration not found"));
+
+        Mockito.verify(registrationService, Mockito.times(1)).getRegistrationsByRegistrationAttributes(Mockito.anyCollection());
+    }
+
     @Test
     @DisplayName("Should find a meetup")
     public void findMeetupTest() throws Exception {
-        Registration registration = Registration.builder().id(11).registration("123").build();
-        Meetup meetup = Meetup.builder().id(11).event("Womakerscode Dados").registration(registration).meetupDate("10/10/2021").build();
+        MeetupView meetup = new MeetupView(11, "Womakerscode Dados", LocalDate.of(2021, 10, 10), null,
+                11, "Ana Neri", LocalDate.of(2021, 10, 1), "123");
 
         BDDMockito.given(meetupService.find(Mockito.any(MeetupFilterDTO.class), Mockito.any(Pageable.class)))
-                .willReturn(new PageImpl<Meetup>(Arrays.asList(meetup), PageRequest.of(0, 20), 1));
+                .willReturn(new PageImpl<MeetupView>(Arrays.asList(meetup), PageRequest.of(0, 20), 1));
 
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders
                 .get(MEETUP_API)
@@ -140,18 +196,50 @@ public class MeetupControllerTest {
         mockMvc.perform(request)
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("content[0].registrationAttribute").value("123"))
+                .andExpect(jsonPath("content[0].meetupDate").value("10/10/2021"))
+                .andExpect(jsonPath("content[0].registration.name").value("Ana Neri"))
+                .andExpect(jsonPath("content[0].registration.dateOfRegistration").value("01/10/2021"))
                 .andExpect(jsonPath("totalElements").value(1))
                 .andExpect(jsonPath("pageable.pageSize").value(20))
                 .andExpect(jsonPath("pageable.pageNumber").value(0));
     }
 
+    @Test
+    @DisplayName("Should find meetups by cursor")
+    public void findMeetupByCursorTest() throws Exception {
+        Registration registration = Registration.builder().id(11).registration("123").build();
+        Meetup meetup = Meetup.builder().id(11).event("Womakerscode Dados").registration(registration).meetupDate(LocalDate.of(2021, 10, 10)).build();
+
+        BDDMockito.given(meetupService.findAfter(Mockito.any(MeetupFilterDTO.class), Mockito.any(KeysetCursor.class), Mockito.anyInt()))
+                .willReturn(new SliceImpl<Meetup>(Arrays.asList(meetup), PageRequest.of(0, 1), true));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("?cursor=&size=1"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("nextCursor").value(KeysetCursor.first(KeysetCursor.ORDER_BY_ID).next(11, null).encode()));
+    }
+
+    @Test
+    @DisplayName("Should return bad request when the cursor is invalid")
+    public void findMeetupByInvalidCursorTest() throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("?cursor=invalid"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Should delete a meetup")
     public void deleteMeetup() throws Exception {
 
-        BDDMockito.given(meetupService
-                        .getById(anyInt()))
-                .willReturn(Optional.of(Meetup.builder().id(11).build()));
+        BDDMockito.given(meetupService.deleteById(11)).willReturn(true);
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
                 .delete(MEETUP_API.concat("/" + 11))
@@ -164,8 +252,7 @@ public class MeetupControllerTest {
     @Test
     @DisplayName("Should return not found when no meetup is found to delete")
     public void deleteNonExistentMeetupTest() throws Exception {
-        BDDMockito.given(meetupService
-                .getById(anyInt())).willReturn(Optional.empty());
+        BDDMockito.given(meetupService.deleteById(anyInt())).willReturn(false);
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
                 .delete(MEETUP_API.concat("/" + 1))
@@ -173,13 +260,64 @@ public class MeetupControllerTest {
 
         mockMvc.perform(requestBuilder)
                 .andExpect(status().isNotFound());
+
+        Mockito.verify(meetupService, Mockito.never()).getById(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should patch only the fields sent, guarded by the meetup version from If-Match")
+    public void patchMeetup() throws Exception {
+        Integer id = 11;
+        String json = "{\"event\": \"new event\"}";
+
+        BDDMockito.given(meetupService.patch(id, "new event", null, 4L)).willReturn(true);
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .patch(MEETUP_API.concat("/" + id))
+                .header(HttpHeaders.IF_MATCH, "\"4.1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(meetupService, Mockito.never()).getById(anyInt());
+        Mockito.verify(meetupService, Mockito.never()).getVersionTag(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should tell an outdated patch apart from a missing meetup")
+    public void patchMeetupPreconditionFailed() throws Exception {
+        String json = "{\"meetupDate\": \"06/06/2022\"}";
+
+        BDDMockito.given(meetupService.patch(anyInt(), Mockito.any(), Mockito.any(), Mockito.any())).willReturn(false);
+        BDDMockito.given(meetupService.getVersionTag(11)).willReturn(Optional.of("5.1"));
+        BDDMockito.given(meetupService.getVersionTag(12)).willReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(MEETUP_API.concat("/" + 11))
+                        .header(HttpHeaders.IF_MATCH, "\"4.1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(MEETUP_API.concat("/" + 12))
+                        .header(HttpHeaders.IF_MATCH, "\"4.1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(MEETUP_API.concat("/" + 11))
+                        .header(HttpHeaders.IF_MATCH, "W/\"5.1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isPreconditionFailed());
     }
 
     @Test
     @DisplayName("Should update a meetup")
     public void updateMeetup() throws Exception {
         Integer id = 11;
-        MeetupDTO meetupDTO = new MeetupDTO(id, "registration", "test event", new RegistrationDTO(), "06/06/2022");
+        MeetupDTO meetupDTO = new MeetupDTO(id, "registration", "test event", new RegistrationDTO(), "06/06/2022", null);
 
         String json = new ObjectMapper().writeValueAsString(meetupDTO);
 
@@ -191,7 +329,7 @@ public class MeetupControllerTest {
         Meetup updatedMeetup = Meetup.builder()
                 .id(id)
                 .event("test event")
-                .meetupDate("06/06/2022")
+                .meetupDate(LocalDate.of(2022, 6, 6))
                 .registered(true)
                 .build();
 
@@ -215,7 +353,7 @@ public class MeetupControllerTest {
     @Test
     @DisplayName("Should return not found when try to update a meetup no existent")
     public void updateMeetupNotFound() throws Exception {
-        MeetupDTO meetupDTO = new MeetupDTO(1, "registration", "test event", new RegistrationDTO(), "06/06/2022");
+        MeetupDTO meetupDTO = new MeetupDTO(1, "registration", "test event", new RegistrationDTO(), "06/06/2022", null);
         String json = new ObjectMapper().writeValueAsString(meetupDTO);
 
         BDDMockito.given(meetupService.getById(anyInt()))
@@ -239,7 +377,7 @@ public class MeetupControllerTest {
         Meetup meetup = Meetup.builder()
                 .id(id)
                 .event("test event")
-                .meetupDate("06/06/2022")
+                .meetupDate(LocalDate.of(2022, 6, 6))
                 .registered(true)
                 .build();
 
@@ -253,7 +391,7 @@ public class MeetupControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("id").value(id))
                 .andExpect(jsonPath("event").value(meetup.getEvent()))
-                .andExpect(jsonPath("meetupDate").value(meetup.getMeetupDate()));
+                .andExpect(jsonPath("meetupDate").value("06/06/2022"));
     }
 
     @Test
@@ -271,4 +409,201 @@ public class MeetupControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Should answer not modified from the meetup version without loading it")
+    public void getMeetupByIdNotModified() throws Exception {
+        Integer id = 11;
+
+        BDDMockito.given(meetupService.getVersionTag(id)).willReturn(Optional.of("3.1"));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("/" + id))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3.1\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3.1\""))
+                .andExpect(content().string(""));
+
+        Mockito.verify(meetupService, Mockito.never()).getById(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should send the meetup with a new ETag when the version changed")
+    public void getMeetupByIdModified() throws Exception {
+        Integer id = 11;
+        Registration registration = Registration.builder().id(1).registration("123").version(1L).build();
+        Meetup meetup = Meetup.builder().id(id).event("test event").registration(registration)
+                .meetupDate(LocalDate.of(2022, 6, 6)).version(4L).build();
+
+        BDDMockito.given(meetupService.getVersionTag(id)).willReturn(Optional.of("4.1"));
+        BDDMockito.given(meetupService.getById(id)).willReturn(Optional.of(meetup));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("/" + id))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3.1\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4.1\""))
+                .andExpect(jsonPath("id").value(id));
+    }
+
+    @Test
+    @DisplayName("Should reject an update made over an outdated version of the meetup")
+    public void updateMeetupPreconditionFailed() throws Exception {
+        Integer id = 11;
+        MeetupDTO meetupDTO = new MeetupDTO(id, "registration", "test event", new RegistrationDTO(), "06/06/2022", null);
+        String json = new ObjectMapper().writeValueAsString(meetupDTO);
+
+        BDDMockito.given(meetupService.getById(id))
+                .willReturn(Optional.of(Meetup.builder().id(id).version(4L).build()));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .put(MEETUP_API.concat("/" + id))
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isPreconditionFailed());
+
+        Mockito.verify(meetupService, Mockito.never()).update(Mockito.any(Meetup.class));
+    }
+
+    @Test
+    @DisplayName("Should find meetups between two dates")
+    public void findMeetupByMeetupDateTest() throws Exception {
+        Meetup meetup = Meetup.builder().id(11).event("Womakerscode Dados").meetupDate(LocalDate.of(2022, 6, 6)).build();
+
+        BDDMockito.given(meetupService.findByMeetupDate(Mockito.eq(LocalDate.of(2022, 6, 1)), Mockito.eq(LocalDate.of(2022, 6, 7)), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Meetup>(Arrays.asList(meetup), PageRequest.of(0, 20), 1));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("?from=2022-06-01&to=2022-06-07&page=0&size=20"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("content[0].meetupDate").value("06/06/2022"))
+                .andExpect(jsonPath("totalElements").value(1));
+    }
+
+    @Test
+    @DisplayName("Should send the registration counts of every event and day")
+    public void statsTest() throws Exception {
+        Map<LocalDate, Long> days = new TreeMap<>();
+        days.put(LocalDate.of(2022, 6, 6), 3L);
+        days.put(LocalDate.of(2022, 6, 7), 1L);
+        BDDMockito.given(meetupService.countRegistrationsByEvent()).willReturn(Collections.singletonMap("Womakerscode Dados", 4L));
+        BDDMockito.given(meetupService.countRegistrationsByMeetupDate()).willReturn(days);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(MEETUP_API.concat("/stats")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("events['Womakerscode Dados']").value(4))
+                .andExpect(jsonPath("days['06/06/2022']").value(3))
+                .andExpect(jsonPath("days['07/06/2022']").value(1));
+    }
+
+    @Test
+    @DisplayName("Should send only the registration counts asked for")
+    public void statsByEventAndDayTest() throws Exception {
+        BDDMockito.given(meetupService.countRegistrationsByEvent("Womakerscode Dados")).willReturn(4L);
+        BDDMockito.given(meetupService.countRegistrationsByMeetupDate(LocalDate.of(2022, 6, 8))).willReturn(0L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(MEETUP_API.concat("/stats?event=Womakerscode Dados&day=2022-06-08"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("events.length()").value(1))
+                .andExpect(jsonPath("events['Womakerscode Dados']").value(4))
+                .andExpect(jsonPath("days['08/06/2022']").value(0));
+
+        Mockito.verify(meetupService, Mockito.never()).countRegistrationsByEvent();
+    }
+
+    @Test
+    @DisplayName("Should reserve a seat on a meetup")
+    public void reserveSeatTest() throws Exception {
+        Registration registration = Registration.builder().id(11).registration("123").build();
+        BDDMockito.given(registrationService.getRegistrationByRegistrationAttribute("123")).willReturn(Optional.of(registration));
+        BDDMockito.given(reservationService.reserve(7, registration)).willReturn(Optional.of(41));
+
+        String json = new ObjectMapper().writeValueAsString(ReservationDTO.builder().registrationAttribute("123").build());
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .post(MEETUP_API.concat("/7/reservations"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("meetupId").value(7))
+                .andExpect(jsonPath("remainingSeats").value(41));
+    }
+
+    @Test
+    @DisplayName("Should return bad request when the meetup is full")
+    public void reserveSeatOnFullMeetupTest() throws Exception {
+        Registration registration = Registration.builder().id(11).registration("123").build();
+        BDDMockito.given(registrationService.getRegistrationByRegistrationAttribute("123")).willReturn(Optional.of(registration));
+        BDDMockito.given(reservationService.reserve(7, registration)).willThrow(new BusinessException("Meetup is full"));
+
+        String json = new ObjectMapper().writeValueAsString(ReservationDTO.builder().registrationAttribute("123").build());
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .post(MEETUP_API.concat("/7/reservations"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors", Matchers.hasSize(1)))
+                .andExpect(jsonPath("errors[0]").value("Meetup is full"));
+    }
+
+    @Test
+    @DisplayName("Should export meetups as csv")
+    public void exportMeetupsAsCsvTest() throws Exception {
+        Registration registration = Registration.builder().id(11).registration("123").name("Ana, Neri").dateOfRegistration(LocalDate.of(2022, 4, 1)).build();
+        Meetup meetup = Meetup.builder().id(11).event("Womakerscode Dados").registration(registration).meetupDate(LocalDate.of(2021, 10, 10)).build();
+
+        Mockito.doAnswer(invocation -> {
+            Consumer<Meetup> consumer = invocation.getArgument(1);
+            consumer.accept(meetup);
+            return null;
+        }).when(meetupService).export(Mockito.any(MeetupFilterDTO.class), Mockito.any());
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("/export"))
+                .param("format", "csv")
+                .param("event", "Womakerscode Dados");
+
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,event,meetupDate,registration,name,dateOfRegistration\n"
+                        + "11,Womakerscode Dados,10/10/2021,123,\"Ana, Neri\",01/04/2022\n"));
+    }
+
+    @Test
+    @DisplayName("Should return bad request when export format is invalid")
+    public void exportMeetupsInvalidFormatTest() throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("/export?format=xml"));
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(meetupService, Mockito.never()).export(Mockito.any(), Mockito.any());
+    }
+
 }
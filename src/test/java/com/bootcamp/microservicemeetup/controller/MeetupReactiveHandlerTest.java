@@ -0,0 +1,126 @@
+package com.bootcamp.microservicemeetup.controller;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapperImpl;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapperImpl;
+import com.bootcamp.microservicemeetup.controller.resource.MeetupReactiveHandler;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.service.MeetupReactiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "meetup.reactive.enabled=true")
+@Import({MeetupReactiveHandler.class, MeetupMapperImpl.class, RegistrationMapperImpl.class})
+public class MeetupReactiveHandlerTest {
+
+    static final String MEETUP_API = "/api/meetups";
+
+    @Autowired
+    MeetupReactiveHandler meetupReactiveHandler;
+
+    @MockBean
+    MeetupReactiveService meetupReactiveService;
+
+    WebTestClient webTestClient;
+
+    @BeforeEach
+    public void setUp() {
+        webTestClient = WebTestClient.bindToRouterFunction(meetupReactiveHandler.routes()).build();
+    }
+
+    @Test
+    @DisplayName("Should get meetup details without blocking")
+    public void findByIdTest() {
+        BDDMockito.given(meetupReactiveService.getById(11)).willReturn(Mono.just(createMeetup()));
+
+        webTestClient.get().uri(MEETUP_API + "/11")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("id").isEqualTo(11)
+                .jsonPath("event").isEqualTo("Womakerscode Dados")
+                .jsonPath("meetupDate").isEqualTo("10/10/2021")
+                .jsonPath("registrationAttribute").isEqualTo("123");
+    }
+
+    @Test
+    @DisplayName("Should return not found when the meetup doesn't exists")
+    public void meetupNotFoundTest() {
+        BDDMockito.given(meetupReactiveService.getById(Mockito.anyInt())).willReturn(Mono.empty());
+
+        webTestClient.get().uri(MEETUP_API + "/1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should return bad request when the id is not a number")
+    public void invalidIdTest() {
+        webTestClient.get().uri(MEETUP_API + "/abc")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo("Invalid id");
+    }
+
+    @Test
+    @DisplayName("Should filter meetups without blocking")
+    public void findMeetupsTest() {
+        BDDMockito.given(meetupReactiveService.find(Mockito.any(MeetupFilterDTO.class), Mockito.any(Pageable.class)))
+                .willReturn(Mono.just(new PageImpl<>(Arrays.asList(createMeetup()), PageRequest.of(0, 100), 1)));
+
+        webTestClient.get().uri(MEETUP_API + "?event=Womakerscode%20Dados&page=0&size=100")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("content.length()").isEqualTo(1)
+                .jsonPath("totalElements").isEqualTo(1)
+                .jsonPath("pageable.pageSize").isEqualTo(100)
+                .jsonPath("pageable.pageNumber").isEqualTo(0);
+
+        Mockito.verify(meetupReactiveService).find(
+                MeetupFilterDTO.builder().event("Womakerscode Dados").build(), PageRequest.of(0, 100));
+    }
+
+    @Test
+    @DisplayName("Should use the default page when the paging parameters are invalid")
+    public void defaultPageTest() {
+        BDDMockito.given(meetupReactiveService.find(Mockito.any(MeetupFilterDTO.class), Mockito.any(Pageable.class)))
+                .willReturn(Mono.just(new PageImpl<>(Arrays.asList(createMeetup()), PageRequest.of(0, 20), 1)));
+
+        webTestClient.get().uri(MEETUP_API + "?registration=123&page=-1&size=abc")
+                .exchange()
+                .expectStatus().isOk();
+
+        Mockito.verify(meetupReactiveService).find(
+                MeetupFilterDTO.builder().registration("123").build(), PageRequest.of(0, 20));
+    }
+
+    private Meetup createMeetup() {
+        Registration registration = Registration.builder().id(11).registration("123").name("Ana Neri")
+                .dateOfRegistration(LocalDate.of(2021, 10, 10)).build();
+        return Meetup.builder().id(11).event("Womakerscode Dados").registration(registration)
+                .meetupDate(LocalDate.of(2021, 10, 10)).build();
+    }
+}
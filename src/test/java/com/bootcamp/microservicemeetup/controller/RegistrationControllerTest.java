@@ -1,9 +1,13 @@
 package com.bootcamp.microservicemeetup.controller;
 
+import com.bootcamp.microservicemeetup.config.MappingMetrics;
+import com.bootcamp.microservicemeetup.controller.mapper.DateMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapperImpl;
 import com.bootcamp.microservicemeetup.controller.resource.RegistrationController;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.RegistrationView;
 import com.bootcamp.microservicemeetup.service.RegistrationService;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
@@ -15,9 +19,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -28,9 +35,13 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,12 +49,16 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
-@WebMvcTest(controllers = {RegistrationController.class})
+@WebMvcTest(controllers = {RegistrationController.class},
+        properties = "meetup.registration.import.chunk-size=" + RegistrationControllerTest.IMPORT_CHUNK_SIZE)
 @AutoConfigureMockMvc
+@Import({RegistrationMapperImpl.class, MappingMetrics.class})
 public class RegistrationControllerTest {
 
     static String REGISTRATION_API = "/api/registration";
 
+    static final int IMPORT_CHUNK_SIZE = 3;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -57,7 +72,7 @@ public class RegistrationControllerTest {
         // cenario
         RegistrationDTO registrationDTOBuilder = createNewRegistration();
         Registration savedRegistration = Registration.builder().id(101)
-                .name("Ana Neri").dateOfRegistration("10/10/2021").registration("001").build();
+                .name("Ana Neri").dateOfRegistration(LocalDate.of(2021, 10, 10)).registration("001").build();
 
 
         // execucao
@@ -132,7 +147,7 @@ public class RegistrationControllerTest {
         Registration registration = Registration.builder()
                 .id(id)
                 .name(createNewRegistration().getName())
-                .dateOfRegistration(createNewRegistration().getDateOfRegistration())
+                .dateOfRegistration(DateMapper.asLocalDate(createNewRegistration().getDateOfRegistration()))
                 .registration(createNewRegistration().getRegistration()).build();
 
         BDDMockito.given(registrationService.getRegistrationById(id)).willReturn(Optional.of(registration));
@@ -150,6 +165,26 @@ public class RegistrationControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Should answer not modified from the registration version without loading it")
+    public void getRegistrationNotModifiedTest() throws Exception {
+
+        Integer id = 11;
+
+        BDDMockito.given(registrationService.getVersionTag(id)).willReturn(Optional.of("2"));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(REGISTRATION_API.concat("/" + id))
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"1\", \"2\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
+        verify(registrationService, never()).getRegistrationById(anyInt());
+    }
+
     @Test
     @DisplayName("Should return NOT FOUND when the registration doesn't exists")
     public void registrationNotFoundTest() throws Exception {
@@ -169,9 +204,7 @@ public class RegistrationControllerTest {
     @DisplayName("Should delete the registration")
     public void deleteRegistration() throws Exception {
 
-        BDDMockito.given(registrationService
-                .getRegistrationById(anyInt()))
-                .willReturn(Optional.of(Registration.builder().id(11).build()));
+        BDDMockito.given(registrationService.deleteById(1)).willReturn(true);
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
                 .delete(REGISTRATION_API.concat("/" + 1))
@@ -185,8 +218,7 @@ public class RegistrationControllerTest {
     @DisplayName("Should return resource not found when no registration is found to delete")
     public void deleteNonExistentRegistrationTest() throws Exception {
 
-        BDDMockito.given(registrationService
-                .getRegistrationById(anyInt())).willReturn(Optional.empty());
+        BDDMockito.given(registrationService.deleteById(anyInt())).willReturn(false);
 
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
@@ -197,6 +229,43 @@ public class RegistrationControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Should patch the registration without loading it")
+    public void patchRegistrationTest() throws Exception {
+
+        Integer id = 11;
+        String json = "{\"dateOfRegistration\": \"01/04/2022\"}";
+
+        BDDMockito.given(registrationService.patch(id, null, LocalDate.of(2022, 4, 1), null)).willReturn(true);
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .patch(REGISTRATION_API.concat("/" + id))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isNoContent());
+
+        verify(registrationService, never()).getRegistrationById(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should return NOT FOUND when the patched registration doesn't exists")
+    public void patchNonExistentRegistrationTest() throws Exception {
+
+        BDDMockito.given(registrationService.patch(anyInt(), any(), any(), any())).willReturn(false);
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .patch(REGISTRATION_API.concat("/" + 1))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Ana Neri\"}");
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isNotFound());
+
+        verify(registrationService, never()).getVersionTag(anyInt());
+    }
+
     @Test
     @DisplayName("Should update when registration info")
     public void updateRegistrationTest() throws Exception {
@@ -208,7 +277,7 @@ public class RegistrationControllerTest {
                 Registration.builder()
                 .id(id)
                 .name("Julie Neri")
-                .dateOfRegistration("10/10/2021")
+                .dateOfRegistration(LocalDate.of(2021, 10, 10))
                 .registration("323")
                 .build();
 
@@ -219,7 +288,7 @@ public class RegistrationControllerTest {
                 Registration.builder()
                         .id(id)
                         .name("Ana Neri")
-                        .dateOfRegistration("10/10/2021")
+                        .dateOfRegistration(LocalDate.of(2021, 10, 10))
                         .registration("323")
                         .build();
 
@@ -265,18 +334,17 @@ public class RegistrationControllerTest {
 
         Integer id = 11;
 
-        Registration registration = Registration.builder()
-                .id(id)
-                .name(createNewRegistration().getName())
-                .dateOfRegistration(createNewRegistration().getDateOfRegistration())
-                .registration(createNewRegistration().getRegistration()).build();
+        RegistrationView registration = new RegistrationView(id,
+                createNewRegistration().getName(),
+                DateMapper.asLocalDate(createNewRegistration().getDateOfRegistration()),
+                createNewRegistration().getRegistration());
 
         BDDMockito.given(registrationService.find(Mockito.any(Registration.class), Mockito.any(Pageable.class)) )
-                .willReturn(new PageImpl<Registration>(Arrays.asList(registration), PageRequest.of(0,100), 1));
+                .willReturn(new PageImpl<RegistrationView>(Arrays.asList(registration), PageRequest.of(0,100), 1));
 
 
         String queryString = String.format("?name=%s&dateOfRegistration=%s&page=0&size=100",
-                registration.getRegistration(), registration.getDateOfRegistration());
+                registration.getRegistration(), createNewRegistration().getDateOfRegistration());
 
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
@@ -296,6 +364,134 @@ public class RegistrationControllerTest {
 
 
 
+    @Test
+    @DisplayName("Should import a stream of registrations reporting the rejected rows")
+    public void createRegistrationBatchTest() throws Exception {
+
+        BDDMockito.given(registrationService.saveAll(Mockito.anyList())).willAnswer(invocation -> {
+            List<Registration> registrations = invocation.getArgument(0);
+            registrations.get(0).setId(101);
+            return registrations.subList(0, 1);
+        });
+
+        String body = "{\"name\":\"Ana Neri\",\"dateOfRegistration\":\"10/10/2021\",\"registration\":\"001\"}\n" +
+                "{\"name\":\"Julie Neri\",\"dateOfRegistration\":\"10/10/2021\",\"registration\":\"002\"}\n" +
+                "{\"dateOfRegistration\":\"10/10/2021\",\"registration\":\"003\"}\n" +
+                "not json\n";
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(REGISTRATION_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(body);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("processed").value(4))
+                .andExpect(jsonPath("created").value(1))
+                .andExpect(jsonPath("rejected").value(3))
+                .andExpect(jsonPath("errors", hasSize(3)))
+                .andExpect(jsonPath("errors[0].position").value(3))
+                .andExpect(jsonPath("errors[1].position").value(4))
+                .andExpect(jsonPath("errors[2].position").value(2))
+                .andExpect(jsonPath("errors[2].message").value("Registration already created"));
+    }
+
+    @Test
+    @DisplayName("Should import registrations from a csv file")
+    public void createRegistrationBatchFromCsvTest() throws Exception {
+
+        BDDMockito.given(registrationService.saveAll(Mockito.anyList())).willAnswer(invocation -> {
+            List<Registration> registrations = invocation.getArgument(0);
+            registrations.forEach(registration -> registration.setId(101));
+            return registrations;
+        });
+
+        String body = "name,dateOfRegistration,registration\n" +
+                "Ana Neri,10/10/2021,001\n" +
+                "Julie Neri,10/10/2021,002\n";
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(REGISTRATION_API.concat("/batch"))
+                .contentType("text/csv")
+                .accept(MediaType.APPLICATION_JSON)
+                .content(body);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("processed").value(2))
+                .andExpect(jsonPath("created").value(2))
+                .andExpect(jsonPath("errors", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("Should import quoted csv fields with commas and escaped quotes")
+    public void createRegistrationBatchFromQuotedCsvTest() throws Exception {
+
+        // o controller reaproveita a lista do bloco, então os nomes são copiados na chamada
+        List<String> names = new ArrayList<>();
+        BDDMockito.given(registrationService.saveAll(Mockito.anyList())).willAnswer(invocation -> {
+            List<Registration> registrations = invocation.getArgument(0);
+            registrations.forEach(registration -> {
+                registration.setId(101);
+                names.add(registration.getName());
+            });
+            return registrations;
+        });
+
+        String body = "name,dateOfRegistration,registration\n" +
+                "\"Silva, Ana\",10/10/2021,001\n" +
+                "\"Julie \"\"Ju\"\" Neri\",\"10/10/2021\",002\n" +
+                "\"Neri, Julie,10/10/2021,003\n";
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(REGISTRATION_API.concat("/batch"))
+                .contentType("text/csv")
+                .accept(MediaType.APPLICATION_JSON)
+                .content(body);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("processed").value(3))
+                .andExpect(jsonPath("created").value(2))
+                .andExpect(jsonPath("errors", hasSize(1)))
+                .andExpect(jsonPath("errors[0].position").value(4));
+
+        assertThat(names).containsExactly("Silva, Ana", "Julie \"Ju\" Neri");
+    }
+
+    @Test
+    @DisplayName("Should report the rows of a chunk that failed to save as rejected and keep the other chunks")
+    public void createRegistrationBatchWithFailedChunkTest() throws Exception {
+
+        BDDMockito.given(registrationService.saveAll(Mockito.anyList()))
+                .willAnswer(invocation -> {
+                    List<Registration> registrations = invocation.getArgument(0);
+                    registrations.forEach(registration -> registration.setId(101));
+                    return registrations;
+                })
+                .willThrow(new DataIntegrityViolationException("ux_registration_registration"));
+
+        StringBuilder body = new StringBuilder("name,dateOfRegistration,registration\n");
+        for (int i = 1; i <= IMPORT_CHUNK_SIZE + 1; i++) {
+            body.append("Ana Neri,10/10/2021,").append(String.format("%03d", i)).append('\n');
+        }
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(REGISTRATION_API.concat("/batch"))
+                .contentType("text/csv")
+                .accept(MediaType.APPLICATION_JSON)
+                .content(body.toString());
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("processed").value(IMPORT_CHUNK_SIZE + 1))
+                .andExpect(jsonPath("created").value(IMPORT_CHUNK_SIZE))
+                .andExpect(jsonPath("rejected").value(1))
+                .andExpect(jsonPath("errors[0].position").value(IMPORT_CHUNK_SIZE + 2))
+                .andExpect(jsonPath("errors[0].message").value("Registration not saved"));
+    }
+
     private RegistrationDTO createNewRegistration() {
         return  RegistrationDTO.builder().id(101).name("Ana Neri").dateOfRegistration("10/10/2021").registration("001").build();
     }
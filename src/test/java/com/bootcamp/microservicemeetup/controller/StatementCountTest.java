@@ -0,0 +1,182 @@
+package com.bootcamp.microservicemeetup.controller;
+
+import com.bootcamp.microservicemeetup.config.StatementCountAssertions;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.persistence.EntityManagerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.bootcamp.microservicemeetup.config.StatementCountAssertions.assertDeleteCount;
+import static com.bootcamp.microservicemeetup.config.StatementCountAssertions.assertSelectCount;
+import static com.bootcamp.microservicemeetup.config.StatementCountAssertions.assertStatementCount;
+import static com.bootcamp.microservicemeetup.config.StatementCountAssertions.assertUpdateCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// guarda contra N+1: cada endpoint de leitura precisa resolver meetup + registration num número fixo de selects
+@SpringBootTest(properties = "meetup.reactive.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class StatementCountTest {
+
+    static final String MEETUP_API = "/api/meetups";
+    static final String REGISTRATION_API = "/api/registration";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Autowired
+    RegistrationRepository registrationRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    List<Meetup> meetups;
+
+    @BeforeEach
+    public void setUp() {
+        meetups = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Registration registration = registrationRepository.save(Registration.builder()
+                    .name("Person " + i)
+                    .dateOfRegistration(LocalDate.of(2021, 10, 10))
+                    .registration(String.format("%03d", i))
+                    .build());
+            meetups.add(meetupRepository.save(Meetup.builder()
+                    .event("Womakerscode Dados")
+                    .registration(registration)
+                    .meetupDate(LocalDate.of(2022, 6, 6))
+                    .registered(false)
+                    .build()));
+        }
+        // as contagens valem para o cache de segundo nível frio, que é o caminho em que um N+1 apareceria
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        StatementCountAssertions.reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        meetupRepository.deleteAll();
+        registrationRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should load a page of meetups and their registrations in a single select")
+    public void findMeetupsSelectCountTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(MEETUP_API + "?event=Womakerscode Dados&page=0&size=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content[4].registration.registration").exists());
+
+        assertSelectCount(1);
+    }
+
+    @Test
+    @DisplayName("Should count the meetups only when the page is full")
+    public void findMeetupsPageWithCountSelectCountTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(MEETUP_API + "?event=Womakerscode Dados&page=0&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("totalElements").value(5));
+
+        assertSelectCount(2);
+    }
+
+    @Test
+    @DisplayName("Should load a meetup and its registration in a single select")
+    public void findMeetupByIdSelectCountTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(MEETUP_API + "/" + meetups.get(0).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("registration.registration").value("000"));
+
+        assertSelectCount(1);
+    }
+
+    @Test
+    @DisplayName("Should load a registration without its meetups")
+    public void findRegistrationByIdSelectCountTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(REGISTRATION_API + "/" + meetups.get(0).getRegistration().getId()))
+                .andExpect(status().isOk());
+
+        assertSelectCount(1);
+    }
+
+    @Test
+    @DisplayName("Should patch a meetup with a single update and no select")
+    public void patchMeetupStatementCountTest() throws Exception {
+        Meetup meetup = meetups.get(0);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(MEETUP_API + "/" + meetup.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + meetup.getVersion() + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"event\": \"Womakerscode Java\"}"))
+                .andExpect(status().isNoContent());
+
+        assertUpdateCount(1);
+        assertStatementCount(1);
+
+        Meetup patched = meetupRepository.findById(meetup.getId()).get();
+        assertThat(patched.getEvent()).isEqualTo("Womakerscode Java");
+        assertThat(patched.getMeetupDate()).isEqualTo(meetup.getMeetupDate());
+        assertThat(patched.getVersion()).isEqualTo(meetup.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("Should patch a registration with a single update and no select")
+    public void patchRegistrationStatementCountTest() throws Exception {
+        Registration registration = meetups.get(0).getRegistration();
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(REGISTRATION_API + "/" + registration.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Ana Neri\"}"))
+                .andExpect(status().isNoContent());
+
+        assertUpdateCount(1);
+        assertStatementCount(1);
+        assertThat(registrationRepository.findById(registration.getId()).get().getName()).isEqualTo("Ana Neri");
+    }
+
+    @Test
+    @DisplayName("Should delete a meetup with a single delete and no select")
+    public void deleteMeetupStatementCountTest() throws Exception {
+        Meetup meetup = meetups.get(0);
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(MEETUP_API + "/" + meetup.getId()))
+                .andExpect(status().isNoContent());
+
+        assertDeleteCount(1);
+        assertStatementCount(1);
+        assertThat(meetupRepository.existsById(meetup.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should answer not found from the affected row count of the delete")
+    public void deleteMissingMeetupStatementCountTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete(MEETUP_API + "/" + Integer.MAX_VALUE))
+                .andExpect(status().isNotFound());
+
+        assertDeleteCount(1);
+        assertStatementCount(1);
+    }
+}
@@ -1,15 +1,23 @@
 package com.bootcamp.microservicemeetup.repository;
 
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.MeetupView;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.LocalDate;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -60,11 +68,93 @@ public class MeetupRepositoryTest {
         assertThat(deletedMeetup).isNull();
     }
 
+    @Test
+    @DisplayName("Should load a page of meetups with their registrations in one query plus the count, without entities")
+    public void findByRegistrationOnMeetupStatementCountTest() {
+        for (int i = 0; i < 3; i++) {
+            Registration registration = entityManager.persist(RegistrationRepositoryTest.createNewRegistration("00" + i));
+            entityManager.persist(Meetup.builder().event("Womakerscode").registration(registration).meetupDate(LocalDate.of(2022, 6, 6)).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        Page<MeetupView> result = repository.findByRegistrationOnMeetup("999", "Womakerscode", PageRequest.of(0, 2));
+
+        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.getContent()).extracting(MeetupView::getRegistrationName).doesNotContainNull();
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should find the meetups between two dates")
+    public void findByMeetupDateBetweenTest() {
+        Registration registration = entityManager.persist(RegistrationRepositoryTest.createNewRegistration("001"));
+        for (int day = 1; day <= 10; day++) {
+            entityManager.persist(Meetup.builder().event("Womakerscode").registration(registration).meetupDate(LocalDate.of(2022, 6, day)).build());
+        }
+
+        Page<Meetup> result = repository.findByMeetupDateBetween(LocalDate.of(2022, 6, 3), LocalDate.of(2022, 6, 5), PageRequest.of(0, 10));
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting(Meetup::getMeetupDate)
+                .containsExactlyInAnyOrder(LocalDate.of(2022, 6, 3), LocalDate.of(2022, 6, 4), LocalDate.of(2022, 6, 5));
+    }
+
+    @Test
+    @DisplayName("Should page by meetup date through the meetups without a date, at the end")
+    public void findAfterMeetupDateWithNullDatesTest() {
+        Registration registration = entityManager.persist(RegistrationRepositoryTest.createNewRegistration("001"));
+        Meetup undated = entityManager.persist(Meetup.builder().event("Womakerscode").registration(registration).build());
+        Meetup second = entityManager.persist(Meetup.builder().event("Womakerscode").registration(registration).meetupDate(LocalDate.of(2022, 6, 7)).build());
+        Meetup first = entityManager.persist(Meetup.builder().event("Womakerscode").registration(registration).meetupDate(LocalDate.of(2022, 6, 6)).build());
+        Meetup lastUndated = entityManager.persist(Meetup.builder().event("Womakerscode").registration(registration).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        Slice<Meetup> firstPage = repository.findByRegistrationOnMeetupAfterMeetupDate("001", "Womakerscode",
+                LocalDate.of(1, 1, 1), 0, PageRequest.of(0, 3));
+        Slice<Meetup> lastPage = repository.findByRegistrationOnMeetupWithoutDateAfterId("001", "Womakerscode",
+                undated.getId(), PageRequest.of(0, 3));
+
+        assertThat(firstPage.getContent()).extracting(Meetup::getId)
+                .containsExactly(first.getId(), second.getId(), undated.getId());
+        assertThat(lastPage.getContent()).extracting(Meetup::getId).containsExactly(lastUndated.getId());
+        assertThat(repository.findByRegistrationOnMeetupAfterMeetupDate("001", "Womakerscode",
+                LocalDate.of(2022, 6, 7), second.getId(), PageRequest.of(0, 3)).getContent())
+                .extracting(Meetup::getId).containsExactly(undated.getId(), lastUndated.getId());
+    }
+
+    @Test
+    @DisplayName("Should read the meetup and registration versions without loading the meetup")
+    public void findVersionByIdTest() {
+        Registration registration = entityManager.persist(RegistrationRepositoryTest.createNewRegistration("001"));
+        Meetup meetup = entityManager.persist(Meetup.builder().event("Womakerscode").registration(registration)
+                .meetupDate(LocalDate.of(2022, 6, 6)).build());
+        meetup.setEvent("Womakerscode Dados");
+        entityManager.flush();
+        entityManager.clear();
+
+        Optional<MeetupRepository.MeetupVersion> version = repository.findVersionById(meetup.getId());
+
+        assertThat(version).isPresent();
+        assertThat(version.get().getVersion()).isEqualTo(1L);
+        assertThat(version.get().getRegistrationVersion()).isEqualTo(0L);
+        assertThat(repository.findVersionById(-1)).isEmpty();
+    }
+
     private Meetup createValidMeetup() {
         return Meetup.builder()
                 .id(100)
                 .event("Test event")
-                .meetupDate("06/06/2022")
+                .meetupDate(LocalDate.of(2022, 6, 6))
                 .build();
     }
 
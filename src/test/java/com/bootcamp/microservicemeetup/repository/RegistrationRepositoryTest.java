@@ -10,6 +10,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.LocalDate;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -105,7 +106,7 @@ public class RegistrationRepositoryTest {
     public static Registration createNewRegistration(String registration) {
         return Registration.builder()
                 .name("Ana Neri")
-                .dateOfRegistration("10/10/2021")
+                .dateOfRegistration(LocalDate.of(2021, 10, 10))
                 .registration(registration).build();
     }
 }
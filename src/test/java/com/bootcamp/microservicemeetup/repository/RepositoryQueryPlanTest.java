@@ -0,0 +1,152 @@
+package com.bootcamp.microservicemeetup.repository;
+
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import org.hibernate.Cache;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// streamAllRegistrations (carga do Bloom filter), streamSearchableFields (carga do índice de busca),
+// streamCapacities e countByMeetup (carga dos contadores de vagas), streamByRegistrationOnMeetup (export)
+// e findByRegistrationOnMeetup com os dois filtros leem a tabela inteira de propósito e ficam de fora, assim como
+// o findViewsByFilter, que só roda com ordenação pedida ou antes do índice de busca carregar
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.bootcamp.microservicemeetup.repository.RepositoryQueryPlanTest$CapturingStatementInspector")
+public class RepositoryQueryPlanTest {
+
+    // sem condição depois do nome do índice o H2 está lendo a tabela inteira
+    private static final Pattern TABLE_SCAN = Pattern.compile("\\.tableScan \\*/");
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Autowired
+    RegistrationRepository registrationRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    private Registration registration;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < 20; i++) {
+            Registration saved = entityManager.persist(RegistrationRepositoryTest.createNewRegistration(String.format("%03d", i)));
+            entityManager.persist(Meetup.builder().event("Event " + (i % 5)).registration(saved)
+                    .meetupDate(LocalDate.of(2022, 6, 1).plusDays(i)).registered(false).build());
+            registration = saved;
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should run the meetup repository queries through indexes")
+    public void meetupRepositoryQueryPlansTest() throws SQLException {
+        assertIndexed(() -> meetupRepository.findById(1));
+        assertIndexed(() -> meetupRepository.findByEventOnMeetup("Event 1", PageRequest.of(0, 2)));
+        assertIndexed(() -> meetupRepository.findByRegistrationCodeOnMeetup("001", PageRequest.of(0, 2)));
+        assertIndexed(() -> meetupRepository.findByRegistrationOnMeetupAfterId("001", "Event 1", 0, PageRequest.of(0, 2)));
+        assertIndexed(() -> meetupRepository.findByRegistrationOnMeetupAfterMeetupDate("001", "Event 1",
+                LocalDate.of(2022, 6, 1), 0, PageRequest.of(0, 2)));
+        assertIndexed(() -> meetupRepository.findByRegistrationOnMeetupWithoutDateAfterId("001", "Event 1", 0, PageRequest.of(0, 2)));
+        assertIndexed(() -> meetupRepository.findByMeetupDateBetween(LocalDate.of(2022, 6, 2), LocalDate.of(2022, 6, 4), PageRequest.of(0, 2)));
+        assertIndexed(() -> meetupRepository.findByRegistration(registration, PageRequest.of(0, 2)));
+        assertIndexed(() -> meetupRepository.findVersionById(1));
+    }
+
+    @Test
+    @DisplayName("Should run the registration repository queries through indexes")
+    public void registrationRepositoryQueryPlansTest() throws SQLException {
+        assertIndexed(() -> registrationRepository.findById(1));
+        assertIndexed(() -> registrationRepository.existsByRegistration("001"));
+        assertIndexed(() -> registrationRepository.findByRegistration("001"));
+        assertIndexed(() -> registrationRepository.findByRegistrationIn(Arrays.asList("001", "002")));
+        assertIndexed(() -> registrationRepository.findViewsByIdIn(Arrays.asList(1, 2)));
+        assertIndexed(() -> registrationRepository.findExistingRegistrations(Arrays.asList("001", "002")));
+        assertIndexed(() -> registrationRepository.findByFilterAfterId(null, null, "00", 0, PageRequest.of(0, 2)));
+        assertIndexed(() -> registrationRepository.findVersionById(1));
+    }
+
+    // sem o cache de segundo nível e de queries, senão a consulta pode nem chegar ao banco
+    private void assertIndexed(Runnable query) throws SQLException {
+        entityManager.getEntityManager().getEntityManagerFactory().getCache().unwrap(Cache.class).evictAllRegions();
+        CapturingStatementInspector.STATEMENTS.clear();
+        query.run();
+
+        List<String> selects = new ArrayList<>();
+        for (String sql : CapturingStatementInspector.STATEMENTS) {
+            if (sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                selects.add(sql);
+            }
+        }
+        assertThat(selects).isNotEmpty();
+
+        try (Connection connection = dataSource.getConnection()) {
+            for (String sql : selects) {
+                String plan = explain(connection, sql);
+                assertThat(TABLE_SCAN.matcher(plan).find())
+                        .as("table scan in %s", plan)
+                        .isFalse();
+            }
+        }
+    }
+
+    // o plano é montado no prepare, então os parâmetros nulos não mudam o índice escolhido
+    private static String explain(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1));
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.bootcamp.microservicemeetup.service;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.repository.MeetupReactiveRepository;
+import com.bootcamp.microservicemeetup.service.impl.MeetupReactiveServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class MeetupReactiveServiceTest {
+
+    MeetupReactiveService meetupReactiveService;
+
+    @MockBean
+    MeetupReactiveRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        this.meetupReactiveService = new MeetupReactiveServiceImpl(repository);
+    }
+
+    @Test
+    @DisplayName("Should filter meetups by event without blocking")
+    public void findByEventTest() {
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Mockito.when(repository.find("Womakerscode Dados", null, pageRequest)).thenReturn(Flux.just(createMeetup(1), createMeetup(2)));
+        Mockito.when(repository.count("Womakerscode Dados", null)).thenReturn(Mono.just(12L));
+
+        Page<Meetup> result = meetupReactiveService
+                .find(MeetupFilterDTO.builder().event("Womakerscode Dados").build(), pageRequest)
+                .block();
+
+        assertThat(result.getContent()).extracting(Meetup::getId).containsExactly(1, 2);
+        assertThat(result.getTotalElements()).isEqualTo(12);
+        assertThat(result.getPageable()).isEqualTo(pageRequest);
+    }
+
+    @Test
+    @DisplayName("Should return an empty page without querying when no filter is given")
+    public void findWithoutFilterTest() {
+        PageRequest pageRequest = PageRequest.of(0, 10);
+
+        Page<Meetup> result = meetupReactiveService.find(new MeetupFilterDTO(), pageRequest).block();
+
+        assertThat(result.getContent()).isEmpty();
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should complete empty when the meetup doesn't exists")
+    public void getByIdNotFoundTest() {
+        Mockito.when(repository.findById(1)).thenReturn(Mono.empty());
+
+        assertThat(meetupReactiveService.getById(1).blockOptional()).isEmpty();
+    }
+
+    private Meetup createMeetup(Integer id) {
+        return Meetup.builder().id(id).event("Womakerscode Dados").meetupDate(LocalDate.of(2021, 10, 10)).build();
+    }
+}
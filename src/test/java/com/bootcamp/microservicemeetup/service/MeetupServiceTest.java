@@ -1,11 +1,16 @@
 package com.bootcamp.microservicemeetup.service;
 
+import com.bootcamp.microservicemeetup.controller.dto.KeysetCursor;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.MeetupView;
 import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.ReservationRepository;
 import com.bootcamp.microservicemeetup.service.impl.MeetupServiceImpl;
+import com.bootcamp.microservicemeetup.service.impl.MeetupStats;
+import com.bootcamp.microservicemeetup.service.impl.SeatCounters;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,14 +21,23 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
 @ExtendWith(SpringExtension.class)
@@ -35,9 +49,16 @@ public class MeetupServiceTest {
     @MockBean
     MeetupRepository repository;
 
+    EntityManager entityManager;
+
+    MeetupStats stats;
+
     @BeforeEach
     public void setUp() {
-        this.meetupService = new MeetupServiceImpl(repository);
+        this.entityManager = Mockito.mock(EntityManager.class);
+        this.stats = new MeetupStats(repository);
+        this.meetupService = new MeetupServiceImpl(repository, entityManager,
+                new SeatCounters(repository, Mockito.mock(ReservationRepository.class)), stats);
     }
 
     @Test
@@ -52,7 +73,7 @@ public class MeetupServiceTest {
         assertThat(savedMeetup.getId()).isEqualTo(100);
         assertThat(savedMeetup.getEvent()).isEqualTo("Test event");
         assertThat(savedMeetup.getRegistration()).isEqualTo(registration());
-        assertThat(savedMeetup.getMeetupDate()).isEqualTo("06/06/2022");
+        assertThat(savedMeetup.getMeetupDate()).isEqualTo(LocalDate.of(2022, 6, 6));
         assertThat(savedMeetup.getRegistered()).isEqualTo(false);
     }
 
@@ -63,7 +84,7 @@ public class MeetupServiceTest {
                 .id(100)
                 .event("Test event")
                 .registration(registration())
-                .meetupDate("06/06/2022")
+                .meetupDate(LocalDate.of(2022, 6, 6))
                 .registered(true)
                 .build();
 
@@ -75,6 +96,19 @@ public class MeetupServiceTest {
         Mockito.verify(repository, Mockito.never()).save(meetup);
     }
 
+    @Test
+    @DisplayName("Should save only the meetups not registered yet")
+    public void saveAllMeetups() {
+        Meetup meetup = Meetup.builder().event("Test event").registration(registration()).build();
+        Meetup registeredMeetup = Meetup.builder().event("Test event").registration(registration()).registered(true).build();
+
+        Mockito.when(repository.saveAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Meetup> savedMeetups = meetupService.saveAll(Arrays.asList(meetup, registeredMeetup));
+
+        assertThat(savedMeetups).containsExactly(meetup);
+    }
+
     @Test
     @DisplayName("Should get a meetup by Id")
     public void getByIdMeetup(){
@@ -89,7 +123,7 @@ public class MeetupServiceTest {
         assertThat(foundMeetup.get().getId()).isEqualTo(id);
         assertThat(foundMeetup.get().getEvent()).isEqualTo("Test event");
         assertThat(foundMeetup.get().getRegistration()).isEqualTo(registration());
-        assertThat(foundMeetup.get().getMeetupDate()).isEqualTo("06/06/2022");
+        assertThat(foundMeetup.get().getMeetupDate()).isEqualTo(LocalDate.of(2022, 6, 6));
         assertThat(foundMeetup.get().getRegistered()).isEqualTo(true);
     }
 
@@ -116,7 +150,7 @@ public class MeetupServiceTest {
         assertThat(meetup.getId()).isEqualTo(updatedMeetup.getId());
         assertThat(meetup.getEvent()).isEqualTo("Test event");
         assertThat(meetup.getRegistration()).isEqualTo(registration());
-        assertThat(meetup.getMeetupDate()).isEqualTo("06/06/2022");
+        assertThat(meetup.getMeetupDate()).isEqualTo(LocalDate.of(2022, 6, 6));
         assertThat(meetup.getRegistered()).isEqualTo(false);
     }
 
@@ -143,6 +177,18 @@ public class MeetupServiceTest {
         Mockito.verify(repository, Mockito.times(1)).delete(meetup);
     }
 
+    @Test
+    @DisplayName("Should delete a meetup by id with a single statement")
+    public void deleteMeetupById() {
+        Mockito.when(repository.bulkDeleteById(101)).thenReturn(1);
+
+        assertThat(meetupService.deleteById(101)).isTrue();
+        assertThat(meetupService.deleteById(102)).isFalse();
+
+        Mockito.verify(repository, Mockito.never()).findById(Mockito.anyInt());
+        Mockito.verify(repository, Mockito.never()).delete(Mockito.any(Meetup.class));
+    }
+
     @Test
     @DisplayName("Should throw an exception when try to delete null meetup")
     public void deleteMeetupNull() {
@@ -159,18 +205,18 @@ public class MeetupServiceTest {
     @Test
     @DisplayName("Should find a list of meetups")
     public void findMeetup(){
-        Meetup meetup = createValidMeetup();
+        MeetupView meetup = createValidMeetupView();
         MeetupFilterDTO meetupDto = meetupDto();
         PageRequest pageRequest = PageRequest.of(0,10);
 
-        List<Meetup> listMeetups = Arrays.asList(meetup);
-        Page<Meetup> page = new PageImpl<Meetup>(Arrays.asList(meetup),
+        List<MeetupView> listMeetups = Arrays.asList(meetup);
+        Page<MeetupView> page = new PageImpl<MeetupView>(Arrays.asList(meetup),
                 PageRequest.of(0,10), 1);
 
         Mockito.when(repository.findByRegistrationOnMeetup(Mockito.any(String.class), Mockito.any(String.class), Mockito.any(PageRequest.class)))
                 .thenReturn(page);
 
-        Page<Meetup> result = meetupService.find(meetupDto, pageRequest);
+        Page<MeetupView> result = meetupService.find(meetupDto, pageRequest);
 
         assertThat(result.getTotalElements()).isEqualTo(1);
         assertThat(result.getContent()).isEqualTo(listMeetups);
@@ -178,6 +224,70 @@ public class MeetupServiceTest {
         assertThat(result.getPageable().getPageSize()).isEqualTo(10);
     }
 
+    @Test
+    @DisplayName("Should find meetups by event alone without the OR query")
+    public void findMeetupByEventOnly(){
+        MeetupView meetup = createValidMeetupView();
+        MeetupFilterDTO meetupDto = MeetupFilterDTO.builder().event("Test event").build();
+        PageRequest pageRequest = PageRequest.of(0,10);
+
+        Mockito.when(repository.findByEventOnMeetup("Test event", pageRequest))
+                .thenReturn(new PageImpl<MeetupView>(Arrays.asList(meetup), pageRequest, 1));
+
+        Page<MeetupView> result = meetupService.find(meetupDto, pageRequest);
+
+        assertThat(result.getContent()).containsExactly(meetup);
+        Mockito.verify(repository, Mockito.never())
+                .findByRegistrationOnMeetup(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should return an empty page when no filter is given")
+    public void findMeetupWithoutFilter(){
+        Page<MeetupView> result = meetupService.find(new MeetupFilterDTO(), PageRequest.of(0,10));
+
+        assertThat(result.getContent()).isEmpty();
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should find the meetups after a cursor ordered by meetup date")
+    public void findMeetupAfterCursor(){
+        Meetup meetup = createValidMeetup();
+        MeetupFilterDTO meetupDto = meetupDto();
+        KeysetCursor cursor = KeysetCursor.first(KeysetCursor.ORDER_BY_MEETUP_DATE).next(10, LocalDate.of(2022, 1, 1));
+
+        Mockito.when(repository.findByRegistrationOnMeetupAfterMeetupDate(Mockito.anyString(), Mockito.anyString(),
+                        Mockito.eq(LocalDate.of(2022, 1, 1)), Mockito.eq(10), Mockito.any(Pageable.class)))
+                .thenReturn(new SliceImpl<Meetup>(Arrays.asList(meetup), PageRequest.of(0, 10), false));
+
+        Slice<Meetup> result = meetupService.findAfter(meetupDto, cursor, 10);
+
+        assertThat(result.getContent()).containsExactly(meetup);
+        assertThat(result.hasNext()).isFalse();
+        Mockito.verify(repository, Mockito.never())
+                .findByRegistrationOnMeetupAfterId(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should keep paging by id once the meetup date cursor reaches the meetups without a date")
+    public void findMeetupAfterCursorWithoutDate(){
+        Meetup meetup = createValidMeetup();
+        MeetupFilterDTO meetupDto = meetupDto();
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.first(KeysetCursor.ORDER_BY_MEETUP_DATE).next(10, null).encode());
+
+        Mockito.when(repository.findByRegistrationOnMeetupWithoutDateAfterId(Mockito.anyString(), Mockito.anyString(),
+                        Mockito.eq(10), Mockito.any(Pageable.class)))
+                .thenReturn(new SliceImpl<Meetup>(Arrays.asList(meetup), PageRequest.of(0, 10), false));
+
+        Slice<Meetup> result = meetupService.findAfter(meetupDto, cursor, 10);
+
+        assertThat(cursor.getMeetupDate()).isNull();
+        assertThat(result.getContent()).containsExactly(meetup);
+        Mockito.verify(repository, Mockito.never()).findByRegistrationOnMeetupAfterMeetupDate(
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
     @Test
     @DisplayName("Should find a list of meetups")
     public void getRegistrationsByMeetup(){
@@ -200,11 +310,98 @@ public class MeetupServiceTest {
         assertThat(result.getPageable().getPageSize()).isEqualTo(10);
     }
 
+    @Test
+    @DisplayName("Should find the meetups between two dates")
+    public void findMeetupsByMeetupDate() {
+        Meetup meetup = createValidMeetup();
+        LocalDate from = LocalDate.of(2022, 6, 1);
+        LocalDate to = LocalDate.of(2022, 6, 30);
+        PageRequest pageRequest = PageRequest.of(0, 10);
+
+        Mockito.when(repository.findByMeetupDateBetween(from, to, pageRequest))
+                .thenReturn(new PageImpl<Meetup>(Arrays.asList(meetup), pageRequest, 1));
+
+        Page<Meetup> result = meetupService.findByMeetupDate(from, to, pageRequest);
+
+        assertThat(result.getContent()).containsExactly(meetup);
+    }
+
+    @Test
+    @DisplayName("Should throw business error when the date range is inverted")
+    public void findMeetupsByInvalidMeetupDateRange() {
+        Throwable exception = Assertions.catchThrowable(() ->
+                meetupService.findByMeetupDate(LocalDate.of(2022, 6, 30), LocalDate.of(2022, 6, 1), PageRequest.of(0, 10)));
+
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Invalid date range");
+        Mockito.verify(repository, Mockito.never()).findByMeetupDateBetween(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should export meetups clearing the persistence context periodically")
+    public void exportMeetups() {
+        MeetupFilterDTO filter = meetupDto();
+        int total = 1200;
+
+        Mockito.when(repository.streamByRegistrationOnMeetup(filter.getRegistration(), filter.getEvent()))
+                .thenReturn(IntStream.range(0, total).mapToObj(i -> createValidMeetup()));
+
+        List<Meetup> exported = new ArrayList<>();
+        meetupService.export(filter, exported::add);
+
+        assertThat(exported).hasSize(total);
+        Mockito.verify(entityManager, Mockito.times(2)).clear();
+    }
+
+    @Test
+    @DisplayName("Should keep the registration counters per event and per day on every write")
+    public void countRegistrationsTest() {
+        Meetup first = createValidMeetup();
+        Meetup second = Meetup.builder().id(200).event("Other event").registration(registration())
+                .meetupDate(LocalDate.of(2022, 6, 6)).registered(false).build();
+        Mockito.when(repository.save(Mockito.any(Meetup.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(repository.patchById(100, "Other event", null, null)).thenReturn(1);
+        Mockito.when(repository.bulkDeleteById(200)).thenReturn(1);
+
+        meetupService.save(first);
+        meetupService.save(second);
+        assertThat(meetupService.countRegistrationsByEvent("Test event")).isEqualTo(1);
+        assertThat(meetupService.countRegistrationsByMeetupDate(LocalDate.of(2022, 6, 6))).isEqualTo(2);
+
+        meetupService.patch(100, "Other event", null, null);
+        assertThat(meetupService.countRegistrationsByEvent()).containsOnly(entry("Other event", 2L));
+
+        meetupService.deleteById(200);
+        meetupService.patch(300, "Test event", null, null);
+        assertThat(meetupService.countRegistrationsByEvent()).containsOnly(entry("Other event", 1L));
+        assertThat(meetupService.countRegistrationsByMeetupDate()).containsOnly(entry(LocalDate.of(2022, 6, 6), 1L));
+
+        meetupService.delete(first);
+        assertThat(meetupService.countRegistrationsByEvent("Other event")).isZero();
+        assertThat(meetupService.countRegistrationsByMeetupDate()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should rebuild the registration counters from the database")
+    public void rebuildRegistrationCountersTest() {
+        Mockito.when(repository.save(Mockito.any(Meetup.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        meetupService.save(createValidMeetup());
+        Mockito.when(repository.streamStatsKeys()).thenReturn(Stream.of(
+                new Object[]{1, "Test event", LocalDate.of(2022, 6, 6)},
+                new Object[]{2, "Test event", LocalDate.of(2022, 6, 7)},
+                new Object[]{3, "Other event", LocalDate.of(2022, 6, 7)}));
+
+        stats.rebuild();
+
+        assertThat(meetupService.countRegistrationsByEvent()).containsOnly(entry("Test event", 2L), entry("Other event", 1L));
+        assertThat(meetupService.countRegistrationsByMeetupDate())
+                .containsOnly(entry(LocalDate.of(2022, 6, 6), 1L), entry(LocalDate.of(2022, 6, 7), 2L));
+    }
+
     private Registration registration() {
         return Registration.builder()
                 .id(101)
                 .name("Ana Neri")
-                .dateOfRegistration("01/04/2022")
+                .dateOfRegistration(LocalDate.of(2022, 4, 1))
                 .registration("001")
                 .build();
     }
@@ -214,11 +411,17 @@ public class MeetupServiceTest {
                 .id(100)
                 .event("Test event")
                 .registration(registration())
-                .meetupDate("06/06/2022")
+                .meetupDate(LocalDate.of(2022, 6, 6))
                 .registered(false)
                 .build();
     }
 
+    private MeetupView createValidMeetupView() {
+        Registration registration = registration();
+        return new MeetupView(100, "Test event", LocalDate.of(2022, 6, 6), null, registration.getId(),
+                registration.getName(), registration.getDateOfRegistration(), registration.getRegistration());
+    }
+
     private MeetupFilterDTO meetupDto(){
         return  MeetupFilterDTO.builder()
                 .event("Test event")
@@ -0,0 +1,133 @@
+package com.bootcamp.microservicemeetup.service;
+
+import com.bootcamp.microservicemeetup.config.CacheConfig;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.repository.ReservationRepository;
+import com.bootcamp.microservicemeetup.service.impl.RegistrationBloomFilter;
+import com.bootcamp.microservicemeetup.service.impl.RegistrationSearchIndex;
+import com.bootcamp.microservicemeetup.service.impl.RegistrationServiceImpl;
+import com.bootcamp.microservicemeetup.service.impl.SeatCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = {CacheConfig.class, RegistrationServiceImpl.class, RegistrationBloomFilter.class, RegistrationSearchIndex.class, SimpleMeterRegistry.class})
+@ActiveProfiles("test")
+public class RegistrationServiceCacheTest {
+
+    @Autowired
+    RegistrationService registrationService;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @MockBean
+    RegistrationRepository repository;
+
+    @MockBean
+    ReservationRepository reservationRepository;
+
+    @MockBean
+    SeatCounters seatCounters;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCache(CacheConfig.REGISTRATIONS_BY_CODE).clear();
+    }
+
+    @Test
+    @DisplayName("Should query the database only once for the same registration attribute")
+    public void cachedRegistrationByRegistrationAttribute() {
+        Mockito.when(repository.findByRegistration("001")).thenReturn(Optional.of(createValidRegistration()));
+
+        Optional<Registration> first = registrationService.getRegistrationByRegistrationAttribute("001");
+        Optional<Registration> second = registrationService.getRegistrationByRegistrationAttribute("001");
+
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        Mockito.verify(repository, Mockito.times(1)).findByRegistration("001");
+    }
+
+    @Test
+    @DisplayName("Should not cache a registration attribute that doesn't exists")
+    public void notCachedMissingRegistrationAttribute() {
+        Mockito.when(repository.findByRegistration("001")).thenReturn(Optional.empty());
+
+        registrationService.getRegistrationByRegistrationAttribute("001");
+        registrationService.getRegistrationByRegistrationAttribute("001");
+
+        Mockito.verify(repository, Mockito.times(2)).findByRegistration("001");
+    }
+
+    @Test
+    @DisplayName("Should invalidate the cached registration when it is updated")
+    public void evictCachedRegistrationOnUpdate() {
+        Registration registration = createValidRegistration();
+        Mockito.when(repository.findByRegistration("001")).thenReturn(Optional.of(registration));
+        Mockito.when(repository.save(registration)).thenReturn(registration);
+
+        registrationService.getRegistrationByRegistrationAttribute("001");
+        registrationService.update(registration);
+        registrationService.getRegistrationByRegistrationAttribute("001");
+
+        Mockito.verify(repository, Mockito.times(2)).findByRegistration("001");
+    }
+
+    @Test
+    @DisplayName("Should invalidate the cached registration when it is deleted")
+    public void evictCachedRegistrationOnDelete() {
+        Registration registration = createValidRegistration();
+        Mockito.when(repository.findByRegistration("001")).thenReturn(Optional.of(registration));
+
+        registrationService.getRegistrationByRegistrationAttribute("001");
+        registrationService.delete(registration);
+        registrationService.getRegistrationByRegistrationAttribute("001");
+
+        Mockito.verify(repository, Mockito.times(2)).findByRegistration("001");
+    }
+
+    @Test
+    @DisplayName("Should keep the cached registration until the update commits")
+    public void evictCachedRegistrationAfterCommit() {
+        Registration registration = createValidRegistration();
+        Mockito.when(repository.findByRegistration("001")).thenReturn(Optional.of(registration));
+        Mockito.when(repository.save(registration)).thenReturn(registration);
+        registrationService.getRegistrationByRegistrationAttribute("001");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            registrationService.update(registration);
+            assertThat(cacheManager.getCache(CacheConfig.REGISTRATIONS_BY_CODE).get("001")).isNotNull();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cacheManager.getCache(CacheConfig.REGISTRATIONS_BY_CODE).get("001")).isNull();
+    }
+
+    private Registration createValidRegistration() {
+        return Registration.builder()
+                .id(101)
+                .name("Ana Neri")
+                .dateOfRegistration(LocalDate.of(2022, 4, 1))
+                .registration("001")
+                .build();
+    }
+}
@@ -2,8 +2,14 @@ package com.bootcamp.microservicemeetup.service;
 
 import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.view.RegistrationView;
 import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.repository.ReservationRepository;
+import com.bootcamp.microservicemeetup.service.impl.RegistrationBloomFilter;
+import com.bootcamp.microservicemeetup.service.impl.RegistrationSearchIndex;
 import com.bootcamp.microservicemeetup.service.impl.RegistrationServiceImpl;
+import com.bootcamp.microservicemeetup.service.impl.SeatCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,16 +17,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.Example;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,10 +43,21 @@ public class RegistrationServiceTest {
     @MockBean
     RegistrationRepository repository;
 
+    RegistrationBloomFilter bloomFilter;
+
+    RegistrationSearchIndex searchIndex;
+
+    @MockBean
+    ReservationRepository reservationRepository;
+
+    @MockBean
+    SeatCounters seatCounters;
 
     @BeforeEach
     public void setUp() {
-        this.registrationService = new RegistrationServiceImpl(repository);
+        this.bloomFilter = new RegistrationBloomFilter(repository, new SimpleMeterRegistry(), 1000, 0.01);
+        this.searchIndex = new RegistrationSearchIndex(repository, new SimpleMeterRegistry());
+        this.registrationService = new RegistrationServiceImpl(repository, bloomFilter, searchIndex, reservationRepository, seatCounters);
     }
 
     @Test
@@ -56,7 +76,7 @@ public class RegistrationServiceTest {
         // assert
         assertThat(savedRegistration.getId()).isEqualTo(101);
         assertThat(savedRegistration.getName()).isEqualTo("Ana Neri");
-        assertThat(savedRegistration.getDateOfRegistration()).isEqualTo("01/04/2022");
+        assertThat(savedRegistration.getDateOfRegistration()).isEqualTo(LocalDate.of(2022, 4, 1));
         assertThat(savedRegistration.getRegistration()).isEqualTo("001");
 
     }
@@ -77,6 +97,73 @@ public class RegistrationServiceTest {
         Mockito.verify(repository, Mockito.never()).save(registration);
     }
 
+    @Test
+    @DisplayName("Should skip the existence query when the registration is not in the bloom filter")
+    public void saveRegistrationWithoutExistenceQuery() {
+
+        Registration registration = createValidRegistration();
+        Mockito.when(repository.streamAllRegistrations()).thenReturn(Stream.of("002", "003"));
+        Mockito.when(repository.save(registration)).thenReturn(registration);
+        bloomFilter.load();
+
+        registrationService.save(registration);
+
+        Mockito.verify(repository, Mockito.never()).existsByRegistration(Mockito.anyString());
+        Mockito.verify(repository, Mockito.times(1)).save(registration);
+        assertThat(bloomFilter.mightContain("001")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should throw business error when the unique index rejects a registration the bloom filter missed")
+    public void saveRegistrationMissedByBloomFilter() {
+
+        Registration registration = createValidRegistration();
+        Mockito.when(repository.streamAllRegistrations()).thenReturn(Stream.of("002", "003"));
+        Mockito.when(repository.save(registration)).thenThrow(new DataIntegrityViolationException("ux_registration_registration"));
+        bloomFilter.load();
+
+        Throwable exception = Assertions.catchThrowable(() -> registrationService.save(registration));
+
+        assertThat(exception)
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Registration already created");
+        Mockito.verify(repository, Mockito.never()).existsByRegistration(Mockito.anyString());
+        assertThat(bloomFilter.mightContain("001")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should check the database when the bloom filter might contain the registration")
+    public void saveRegistrationPossiblyDuplicated() {
+
+        Registration registration = createValidRegistration();
+        Mockito.when(repository.streamAllRegistrations()).thenReturn(Stream.of("001"));
+        Mockito.when(repository.existsByRegistration("001")).thenReturn(true);
+        bloomFilter.load();
+
+        Throwable exception = Assertions.catchThrowable(() -> registrationService.save(registration));
+
+        assertThat(exception).isInstanceOf(BusinessException.class);
+        Mockito.verify(repository, Mockito.times(1)).existsByRegistration("001");
+    }
+
+    @Test
+    @DisplayName("Should save only the registrations that doesn't exists yet")
+    public void saveAllRegistrations() {
+
+        Registration first = Registration.builder().name("Ana Neri").registration("001").build();
+        Registration existing = Registration.builder().name("Julie Neri").registration("002").build();
+        Registration repeated = Registration.builder().name("Ana Neri").registration("001").build();
+
+        Mockito.when(repository.findExistingRegistrations(Mockito.anyCollection())).thenReturn(Arrays.asList("002"));
+        Mockito.when(repository.saveAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Registration> saved = registrationService.saveAll(Arrays.asList(first, existing, repeated));
+
+        assertThat(saved).containsExactly(first);
+        Mockito.verify(repository, Mockito.times(1)).findExistingRegistrations(Mockito.anyCollection());
+        Mockito.verify(repository, Mockito.never()).existsByRegistration(Mockito.anyString());
+    }
+
     @Test
     @DisplayName("Should get an Registration by Id")
     public void getByRegistrationIdTest() {
@@ -122,6 +209,20 @@ public class RegistrationServiceTest {
         Mockito.verify(repository, Mockito.times(1)).delete(registration);
     }
 
+    @Test
+    @DisplayName("Should give back the seats of the reservations deleted with the registration")
+    public void releaseSeatsOnDeleteTest() {
+        Mockito.when(reservationRepository.findMeetupIdsByRegistrationId(11)).thenReturn(Arrays.asList(7, 8));
+        Mockito.when(reservationRepository.findMeetupIdsByRegistrationId(12)).thenReturn(Arrays.asList(7));
+        Mockito.when(repository.bulkDeleteById(12)).thenReturn(1);
+
+        registrationService.delete(Registration.builder().id(11).build());
+        registrationService.deleteById(12);
+
+        Mockito.verify(seatCounters, Mockito.times(2)).release(7);
+        Mockito.verify(seatCounters, Mockito.times(1)).release(8);
+    }
+
     @Test
     @DisplayName("Should update an registration")
     public void updateRegistration() {
@@ -154,15 +255,18 @@ public class RegistrationServiceTest {
         Registration registration = createValidRegistration();
         PageRequest pageRequest = PageRequest.of(0,10);
 
-        List<Registration> listRegistrations = Arrays.asList(registration);
-        Page<Registration> page = new PageImpl<Registration>(Arrays.asList(registration),
+        RegistrationView view = new RegistrationView(registration.getId(), registration.getName(),
+                registration.getDateOfRegistration(), registration.getRegistration());
+        List<RegistrationView> listRegistrations = Arrays.asList(view);
+        Page<RegistrationView> page = new PageImpl<RegistrationView>(Arrays.asList(view),
                 PageRequest.of(0,10), 1);
 
         // execucao
-        Mockito.when(repository.findAll(Mockito.any(Example.class), Mockito.any(PageRequest.class)))
+        Mockito.when(repository.findViewsByFilter(registration.getName(), registration.getDateOfRegistration(),
+                        registration.getRegistration(), pageRequest))
                 .thenReturn(page);
 
-        Page<Registration> result = registrationService.find(registration, pageRequest);
+        Page<RegistrationView> result = registrationService.find(registration, pageRequest);
 
         // assercao
         assertThat(result.getTotalElements()).isEqualTo(1);
@@ -171,6 +275,106 @@ public class RegistrationServiceTest {
         assertThat(result.getPageable().getPageSize()).isEqualTo(10);
     }
 
+    @Test
+    @DisplayName("Should filter registrations through the trigram index and load only the page ids")
+    public void findRegistrationThroughSearchIndexTest() {
+        Mockito.when(repository.streamSearchableFields()).thenReturn(Stream.of(
+                new Object[]{1, "Ana Neri", LocalDate.of(2022, 4, 1), "001"},
+                new Object[]{2, "Julie Neri", LocalDate.of(2022, 4, 1), "002"},
+                new Object[]{3, "Maria Silva", LocalDate.of(2022, 4, 1), "003"},
+                new Object[]{4, "Joana Nery", LocalDate.of(2022, 4, 1), "004"}));
+        searchIndex.load();
+
+        RegistrationView julie = new RegistrationView(2, "Julie Neri", LocalDate.of(2022, 4, 1), "002");
+        Mockito.when(repository.findViewsByIdIn(Arrays.asList(2))).thenReturn(Arrays.asList(julie));
+
+        Registration filter = Registration.builder().name("NERI").build();
+        Page<RegistrationView> result = registrationService.find(filter, PageRequest.of(1, 1));
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).containsExactly(julie);
+        Mockito.verify(repository, Mockito.never())
+                .findViewsByFilter(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should keep the trigram index current on update and delete")
+    public void searchIndexFollowsUpdatesTest() {
+        Mockito.when(repository.streamSearchableFields()).thenReturn(Stream.empty());
+        searchIndex.load();
+
+        Registration registration = createValidRegistration();
+        Mockito.when(repository.save(registration)).thenReturn(registration);
+        registrationService.update(registration);
+        assertThat(searchIndex.search(Registration.builder().name("ana").build())).containsExactly(registration.getId());
+
+        registration.setName("Julie Neri");
+        registrationService.update(registration);
+        assertThat(searchIndex.search(Registration.builder().name("ana").build())).isEmpty();
+        assertThat(searchIndex.search(Registration.builder().name("julie").build())).containsExactly(registration.getId());
+
+        registrationService.delete(registration);
+        assertThat(searchIndex.search(Registration.builder().name("julie").build())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the trigram index current on patch and delete by id")
+    public void searchIndexFollowsPatchesTest() {
+        Mockito.when(repository.streamSearchableFields()).thenReturn(Stream.<Object[]>of(
+                new Object[]{101, "Ana Neri", LocalDate.of(2022, 4, 1), "001"}));
+        searchIndex.load();
+        Mockito.when(repository.patchById(101, "Julie Neri", null, 3L)).thenReturn(1);
+        Mockito.when(repository.bulkDeleteById(101)).thenReturn(1);
+
+        assertThat(registrationService.patch(101, "Julie Neri", null, 3L)).isTrue();
+        assertThat(searchIndex.search(Registration.builder().name("ana").build())).isEmpty();
+        assertThat(searchIndex.search(Registration.builder().name("julie").registration("001")
+                .dateOfRegistration(LocalDate.of(2022, 4, 1)).build())).containsExactly(101);
+
+        assertThat(registrationService.patch(101, "Ana Neri", null, 2L)).isFalse();
+        assertThat(searchIndex.search(Registration.builder().name("julie").build())).containsExactly(101);
+
+        assertThat(registrationService.deleteById(101)).isTrue();
+        assertThat(searchIndex.search(Registration.builder().name("julie").build())).isEmpty();
+        assertThat(registrationService.deleteById(101)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should pick up registrations written outside the service when the trigram index is rebuilt")
+    public void searchIndexRebuildTest() {
+        Mockito.when(repository.streamSearchableFields()).thenReturn(Stream.<Object[]>of(
+                new Object[]{101, "Ana Neri", LocalDate.of(2022, 4, 1), "001"}));
+        searchIndex.load();
+        Mockito.when(repository.streamSearchableFields()).thenReturn(Stream.of(
+                new Object[]{101, "Ana Neri", LocalDate.of(2022, 4, 1), "001"},
+                new Object[]{102, "Julie Neri", LocalDate.of(2022, 4, 1), "002"}));
+
+        assertThat(searchIndex.search(Registration.builder().name("julie").build())).isEmpty();
+        searchIndex.load();
+
+        assertThat(searchIndex.search(Registration.builder().name("neri").build())).containsExactly(101, 102);
+    }
+
+    @Test
+    @DisplayName("Should only index a registration when its transaction commits")
+    public void searchIndexWaitsForCommitTest() {
+        Mockito.when(repository.streamSearchableFields()).thenReturn(Stream.empty());
+        searchIndex.load();
+        Registration registration = createValidRegistration();
+        Mockito.when(repository.save(registration)).thenReturn(registration);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            registrationService.update(registration);
+            assertThat(searchIndex.search(Registration.builder().name("ana").build())).isEmpty();
+        } finally {
+            // rollback: as sincronizações são descartadas sem afterCommit
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(searchIndex.search(Registration.builder().name("ana").build())).isEmpty();
+    }
+
     @Test
     @DisplayName("Should get an Registration model by registration attribute")
     public void getRegistrationByRegistrationAtrb() {
@@ -195,7 +399,7 @@ public class RegistrationServiceTest {
         return Registration.builder()
                 .id(101)
                 .name("Ana Neri")
-                .dateOfRegistration("01/04/2022")
+                .dateOfRegistration(LocalDate.of(2022, 4, 1))
                 .registration("001")
                 .build();
     }
@@ -0,0 +1,222 @@
+package com.bootcamp.microservicemeetup.service;
+
+import com.bootcamp.microservicemeetup.exception.BusinessException;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.model.entity.Reservation;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.ReservationRepository;
+import com.bootcamp.microservicemeetup.service.impl.ReservationServiceImpl;
+import com.bootcamp.microservicemeetup.service.impl.ReservationWriteBehind;
+import com.bootcamp.microservicemeetup.service.impl.SeatCounters;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class ReservationServiceTest {
+
+    static final int LIMITED_MEETUP = 1;
+    static final int UNLIMITED_MEETUP = 2;
+    static final int CONTENDED_MEETUP = 3;
+
+    ReservationService reservationService;
+
+    SeatCounters seatCounters;
+
+    ReservationWriteBehind writeBehind;
+
+    @MockBean
+    MeetupRepository meetupRepository;
+
+    @MockBean
+    ReservationRepository reservationRepository;
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.when(reservationRepository.countByMeetup())
+                .thenReturn(Arrays.<Object[]>asList(new Object[]{LIMITED_MEETUP, 8L}));
+        Mockito.when(meetupRepository.streamCapacities()).thenReturn(Stream.of(
+                new Object[]{LIMITED_MEETUP, 10},
+                new Object[]{UNLIMITED_MEETUP, null},
+                new Object[]{CONTENDED_MEETUP, 1000}));
+
+        this.seatCounters = new SeatCounters(meetupRepository, reservationRepository);
+        this.seatCounters.load();
+        this.writeBehind = new ReservationWriteBehind(reservationRepository, seatCounters, 50);
+        this.reservationService = new ReservationServiceImpl(seatCounters, writeBehind, reservationRepository);
+    }
+
+    @Test
+    @DisplayName("Should rebuild the seat counters from the persisted reservations")
+    public void reserveAfterRebuild() {
+        assertThat(reservationService.reserve(LIMITED_MEETUP, registration(1))).contains(1);
+        assertThat(reservationService.reserve(LIMITED_MEETUP, registration(2))).contains(0);
+
+        Throwable exception = Assertions.catchThrowable(() -> reservationService.reserve(LIMITED_MEETUP, registration(3)));
+
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Meetup is full");
+    }
+
+    @Test
+    @DisplayName("Should not limit meetups without capacity and ignore unknown meetups")
+    public void reserveUnlimitedAndUnknown() {
+        assertThat(reservationService.reserve(UNLIMITED_MEETUP, registration(1))).contains(ReservationService.UNLIMITED);
+        assertThat(reservationService.reserve(99, registration(1))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should persist the accepted reservations in batches")
+    public void flushReservationsInBatches() {
+        for (int i = 0; i < 120; i++) {
+            reservationService.reserve(CONTENDED_MEETUP, registration(i));
+        }
+
+        writeBehind.flush();
+
+        Mockito.verify(reservationRepository, Mockito.times(3)).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Should give the seats back when the reservations cannot be persisted")
+    public void releaseSeatsWhenFlushFails() {
+        Mockito.when(reservationRepository.saveAll(Mockito.anyList())).thenThrow(new IllegalStateException("database down"));
+        Mockito.when(reservationRepository.save(Mockito.any(Reservation.class))).thenThrow(new IllegalStateException("database down"));
+        reservationService.reserve(LIMITED_MEETUP, registration(1));
+        reservationService.reserve(LIMITED_MEETUP, registration(2));
+
+        writeBehind.flush();
+
+        assertThat(seatCounters.remaining(LIMITED_MEETUP)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should retry a failed batch row by row and only give back the seats of the failing rows")
+    public void retryFailedBatchRowByRow() {
+        Mockito.when(reservationRepository.saveAll(Mockito.anyList())).thenThrow(new IllegalStateException("constraint violated"));
+        Mockito.when(reservationRepository.save(Mockito.any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            if (reservation.getRegistrationId() == 2) {
+                throw new IllegalStateException("constraint violated");
+            }
+            return reservation;
+        });
+        reservationService.reserve(LIMITED_MEETUP, registration(1));
+        reservationService.reserve(LIMITED_MEETUP, registration(2));
+
+        writeBehind.flush();
+
+        Mockito.verify(reservationRepository, Mockito.times(2)).save(Mockito.any(Reservation.class));
+        assertThat(seatCounters.remaining(LIMITED_MEETUP)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop the queued reservations of a removed meetup")
+    public void dropReservationsOfRemovedMeetup() {
+        List<Reservation> persisted = new ArrayList<>();
+        Mockito.when(reservationRepository.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Reservation> batch = invocation.getArgument(0);
+            persisted.addAll(batch);
+            return batch;
+        });
+        reservationService.reserve(LIMITED_MEETUP, registration(1));
+        reservationService.reserve(UNLIMITED_MEETUP, registration(1));
+        seatCounters.remove(LIMITED_MEETUP);
+
+        writeBehind.flush();
+
+        assertThat(persisted).extracting(Reservation::getMeetupId).containsExactly(UNLIMITED_MEETUP);
+    }
+
+    @Test
+    @DisplayName("Should give a registration only one seat per meetup")
+    public void rejectDuplicatedReservation() {
+        Mockito.when(reservationRepository.existsByMeetupIdAndRegistrationId(LIMITED_MEETUP, 2)).thenReturn(true);
+        reservationService.reserve(LIMITED_MEETUP, registration(1));
+
+        Throwable queued = Assertions.catchThrowable(() -> reservationService.reserve(LIMITED_MEETUP, registration(1)));
+        Throwable persisted = Assertions.catchThrowable(() -> reservationService.reserve(LIMITED_MEETUP, registration(2)));
+
+        assertThat(queued).isInstanceOf(BusinessException.class).hasMessage("Registration already has a seat on this meetup");
+        assertThat(persisted).isInstanceOf(BusinessException.class).hasMessage("Registration already has a seat on this meetup");
+        assertThat(seatCounters.remaining(LIMITED_MEETUP)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should never overbook a meetup under thousands of concurrent reservations")
+    public void reserveConcurrently() throws InterruptedException {
+        int threads = 2000;
+        int attemptsPerThread = 5;
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicBoolean negativeRemaining = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        List<Reservation> persisted = new ArrayList<>();
+        Mockito.when(reservationRepository.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Reservation> batch = invocation.getArgument(0);
+            persisted.addAll(batch);
+            return batch;
+        });
+
+        for (int t = 0; t < threads; t++) {
+            int registrationId = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        try {
+                            Optional<Integer> remaining = reservationService.reserve(CONTENDED_MEETUP, registration(registrationId));
+                            // assertThat aqui dentro só mataria a thread; a falha é conferida na thread do teste
+                            if (!remaining.isPresent() || remaining.get() < 0) {
+                                negativeRemaining.set(true);
+                            }
+                            accepted.incrementAndGet();
+                        } catch (BusinessException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        start.countDown();
+        done.await();
+        writeBehind.flush();
+
+        // cada thread usa uma inscrição só: as tentativas depois da primeira vaga são recusadas como duplicadas
+        int attempts = threads * attemptsPerThread;
+        assertThat(negativeRemaining).isFalse();
+        assertThat(accepted.get()).isEqualTo(1000);
+        assertThat(rejected.get()).isEqualTo(attempts - 1000);
+        assertThat(seatCounters.remaining(CONTENDED_MEETUP)).isZero();
+        assertThat(persisted).hasSize(1000);
+    }
+
+    private Registration registration(int id) {
+        return Registration.builder().id(id).registration(String.format("%03d", id)).build();
+    }
+}
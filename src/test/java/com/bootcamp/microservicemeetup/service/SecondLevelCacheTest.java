@@ -0,0 +1,124 @@
+package com.bootcamp.microservicemeetup.service;
+
+import com.bootcamp.microservicemeetup.config.StatementCountAssertions;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+
+import static com.bootcamp.microservicemeetup.config.StatementCountAssertions.assertSelectCount;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "meetup.reactive.enabled=false")
+@ActiveProfiles("test")
+public class SecondLevelCacheTest {
+
+    @Autowired
+    MeetupService meetupService;
+
+    @Autowired
+    RegistrationService registrationService;
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Autowired
+    RegistrationRepository registrationRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Registration registration;
+
+    Meetup meetup;
+
+    @BeforeEach
+    public void setUp() {
+        registration = registrationRepository.save(Registration.builder()
+                .name("Ana Neri")
+                .dateOfRegistration(LocalDate.of(2022, 4, 1))
+                .registration("cache-001")
+                .build());
+        meetup = meetupRepository.save(Meetup.builder()
+                .event("Womakerscode Dados")
+                .registration(registration)
+                .meetupDate(LocalDate.of(2022, 6, 6))
+                .registered(false)
+                .build());
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        StatementCountAssertions.reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        meetupRepository.deleteAll();
+        registrationRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should answer repeated meetup and registration loads from the second-level cache")
+    public void entityCacheHitTest() {
+        meetupService.getById(meetup.getId());
+        assertSelectCount(1);
+
+        StatementCountAssertions.reset();
+        Meetup cached = meetupService.getById(meetup.getId()).get();
+        Registration cachedRegistration = registrationService.getRegistrationById(registration.getId()).get();
+
+        assertThat(cached.getEvent()).isEqualTo("Womakerscode Dados");
+        assertThat(cached.getRegistration().getName()).isEqualTo("Ana Neri");
+        assertThat(cachedRegistration.getRegistration()).isEqualTo("cache-001");
+        assertSelectCount(0);
+    }
+
+    @Test
+    @DisplayName("Should not serve cached registrations after update, patch or delete")
+    public void entityCacheInvalidationTest() {
+        registrationService.getRegistrationById(registration.getId());
+
+        registration.setName("Julie Neri");
+        registrationService.update(registration);
+        assertThat(registrationService.getRegistrationById(registration.getId()).get().getName()).isEqualTo("Julie Neri");
+
+        registrationService.patch(registration.getId(), "Maria Silva", null, null);
+        assertThat(registrationService.getRegistrationById(registration.getId()).get().getName()).isEqualTo("Maria Silva");
+        assertThat(meetupService.getById(meetup.getId()).get().getRegistration().getName()).isEqualTo("Maria Silva");
+
+        meetupService.deleteById(meetup.getId());
+        registrationService.deleteById(registration.getId());
+        assertThat(meetupService.getById(meetup.getId())).isEmpty();
+        assertThat(registrationService.getRegistrationById(registration.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should cache registration lookups by code until the table is written")
+    public void queryCacheTest() {
+        assertThat(registrationRepository.existsByRegistration("cache-002")).isFalse();
+        assertThat(registrationRepository.findByRegistration("cache-001")).isPresent();
+
+        StatementCountAssertions.reset();
+        assertThat(registrationRepository.existsByRegistration("cache-002")).isFalse();
+        assertThat(registrationRepository.findByRegistration("cache-001")).isPresent();
+        assertSelectCount(0);
+
+        registrationService.save(Registration.builder()
+                .name("Julie Neri")
+                .dateOfRegistration(LocalDate.of(2022, 4, 1))
+                .registration("cache-002")
+                .build());
+
+        assertThat(registrationRepository.existsByRegistration("cache-002")).isTrue();
+        assertThat(registrationRepository.findByRegistration("cache-002")).isPresent();
+    }
+}